@@ -10,6 +10,7 @@ import {
 
 function ForumManagement() {
   const [topics, setTopics] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [selectedTopic, setSelectedTopic] = useState(null);
   const [posts, setPosts] = useState([]);
   const [loading, setLoading] = useState(false);
@@ -24,9 +25,11 @@ function ForumManagement() {
       const response = await listTopics();
       if (response && response.data) {
         setTopics(response.data || []);
+        setNextCursor(response.nextCursor);
       } else {
         showMessage('No topics found or invalid response', 'warning');
         setTopics([]);
+        setNextCursor(null);
       }
     } catch (error) {
       console.error('Error loading topics:', error);
@@ -41,6 +44,21 @@ function ForumManagement() {
     loadTopics();
   }, [loadTopics]);
 
+  // Append the next page of topics
+  const loadMoreTopics = async () => {
+    if (!nextCursor) return;
+    try {
+      const response = await listTopics(null, nextCursor);
+      if (response && response.data) {
+        setTopics(prev => [...prev, ...response.data]);
+        setNextCursor(response.nextCursor);
+      }
+    } catch (error) {
+      console.error('Error loading more topics:', error);
+      showMessage(`Error loading topics: ${error.message || 'Unknown error'}`, 'error');
+    }
+  };
+
   // Load posts for a selected topic
   const loadPosts = async (topicId) => {
     setLoading(true);
@@ -226,6 +244,16 @@ function ForumManagement() {
                 )}
               </tbody>
             </table>
+            {nextCursor && (
+              <div className="text-center mt-2">
+                <button
+                  onClick={loadMoreTopics}
+                  className="bg-gray-200 hover:bg-gray-300 px-3 py-1 rounded text-sm"
+                >
+                  Load more
+                </button>
+              </div>
+            )}
           </div>
         )}
       </div>
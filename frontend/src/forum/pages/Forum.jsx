@@ -6,6 +6,7 @@ import CategoryBadge from "../components/CategoryBadge";
 
 export default function Forum() {
   const [topics, setTopics] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [newTitle, setNewTitle] = useState("");
   const [newCat, setNewCat] = useState("ALL");
   const [error, setError] = useState("");
@@ -54,8 +55,10 @@ export default function Forum() {
       
       if (response.data && response.result === "SUCCESS") {
         setTopics(response.data || []);
+        setNextCursor(response.nextCursor);
       } else {
         setTopics([]);
+        setNextCursor(null);
       }
     } catch (err) {
       console.error("Error loading topics:", err);
@@ -63,6 +66,22 @@ export default function Forum() {
     }
   };
 
+  // Load the next page and append it to the list
+  const loadMoreTopics = async () => {
+    if (!nextCursor) return;
+    try {
+      const filter = newCat !== "ALL" ? newCat : null;
+      const response = await listTopics(filter, nextCursor);
+      if (response.data && response.result === "SUCCESS") {
+        setTopics(prev => [...prev, ...response.data]);
+        setNextCursor(response.nextCursor);
+      }
+    } catch (err) {
+      console.error("Error loading more topics:", err);
+      setError("Failed to load topics");
+    }
+  };
+
   // Load topics when mount or when newCat changes
   useEffect(() => {
     loadTopics();
@@ -294,6 +313,13 @@ export default function Forum() {
           ))
         )}
       </div>
+      {nextCursor && (
+        <div className="text-center mt-3">
+          <button className="btn btn-outline-primary" onClick={loadMoreTopics}>
+            Load more
+          </button>
+        </div>
+      )}
 
       {/* Create Topic Modal */}
       <div className="modal fade" id="createTopicModal" tabIndex="-1" aria-hidden="true">
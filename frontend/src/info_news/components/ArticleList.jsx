@@ -23,8 +23,8 @@ export default function ArticleList({ articles }) {
             <div className="card-body">
               <h5 className="card-title">{article.title}</h5>
               <p className="card-text">
-                {article.content ? (
-                  article.content.substring(0, 150) + '...'
+                {article.excerpt || article.content ? (
+                  (article.excerpt || article.content).substring(0, 150) + '...'
                 ) : (
                   'Không có nội dung.'
                 )}
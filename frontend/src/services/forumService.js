@@ -2,18 +2,21 @@
 import { API } from "./api";  // <-- dùng chung instance đã cài interceptor
 
 /**
- * Get list of topics, can filter by category (string) or get all (null/undefined)
+ * Get one page of topics (newest first), can filter by category (string) or get all (null/undefined)
  * @param {string|null} category 
- * @returns Promise<AxiosResponse<TopicResponse[]>>
+ * @param {string|null} cursor nextCursor of the previous page, null for the first page
+ * @param {number} size
+ * @returns Promise<{ result, message, data: TopicResponse[], nextCursor: string|null }>
  */
-export async function listTopics(category = null) {
+export async function listTopics(category = null, cursor = null, size = 20) {
   try {
-    const endpoint = category 
-      ? `/api/forum/topics?category=${category}` 
-      : '/api/forum/topics';
-    
-    const response = await API.get(endpoint);
-    return response.data;
+    const params = { size };
+    if (category) params.category = category;
+    if (cursor) params.cursor = cursor;
+
+    const response = await API.get('/api/forum/topics/page', { params });
+    const page = response.data.data || {};
+    return { ...response.data, data: page.topics || [], nextCursor: page.nextCursor || null };
   } catch (error) {
     console.error("Error listing topics:", error);
     throw error;
@@ -0,0 +1,370 @@
+package com.ufit.server.cache;
+
+import com.ufit.server.dto.response.ChatCacheStats;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache for chatbot answers keyed on a normalized prompt.
+ *
+ * Lookups first try the SHA-256 of the normalized prompt. When a similarity
+ * threshold is set, a MinHash signature over character shingles is also
+ * indexed with LSH bands, so a prompt that differs only in a few words
+ * can reuse an earlier answer. A near hit also needs the same numbers and
+ * the same negation words, since "should i stretch" and "should i not
+ * stretch" shingle almost identically. Entries are evicted LRU by count and expire
+ * after a fixed TTL. Each entry remembers how long the upstream call took,
+ * which is reported as saved latency on every hit.
+ */
+public class ChatResponseCache<V> {
+
+    private static final int SHINGLE = 4;
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int NUM_HASHES = BANDS * ROWS;
+    // Hệ số cố định để chữ ký MinHash ổn định giữa các lần khởi động
+    private static final long[] HASH_A = new long[NUM_HASHES];
+    private static final long[] HASH_B = new long[NUM_HASHES];
+    // Sau normalize, "don't" thành "don t" nên "t" cũng tính là phủ định
+    private static final Set<String> NEGATIONS = Set.of(
+        "not", "no", "never", "without", "cannot", "nor", "t",
+        "dont", "doesnt", "didnt", "isnt", "arent", "cant", "wont", "shouldnt",
+        "không", "chưa", "đừng", "chẳng", "chả", "chớ");
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_CAFEL);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            HASH_A[i] = random.nextLong() | 1L;
+            HASH_B[i] = random.nextLong();
+        }
+    }
+
+    private record Entry<V>(V value, String digits, String negations, int[] signature, long[] bandKeys,
+                            long expiresAtNanos, long loadNanos) {}
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final double similarityThreshold;
+    private final LinkedHashMap<String, Entry<V>> entries;
+    // band LSH -> (khóa -> entry); giữ luôn entry để xét ứng viên mà không đổi thứ tự LRU
+    private final Map<Long, Map<String, Entry<V>>> bands = new HashMap<>();
+
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+    private final LongAdder upstreamNanos = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param similarityThreshold minimum estimated Jaccard similarity for a
+     *                            near-duplicate hit; {@code <= 0} disables
+     *                            the similarity index
+     */
+    public ChatResponseCache(String name, int maxEntries, long ttlMillis, double similarityThreshold) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.similarityThreshold = similarityThreshold;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                if (size() > ChatResponseCache.this.maxEntries) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Lower-case, NFC-normalize and collapse punctuation and whitespace, so
+     * "Tăng cơ thế nào?" and "tăng  cơ thế nào" share a key.
+     */
+    public static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        String text = Normalizer.normalize(prompt, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return out.toString();
+    }
+
+    /** Cached value for an already normalized prompt, exact match first */
+    public Optional<V> get(String normalized) {
+        String key = digest(normalized);
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.expiresAtNanos() < 0) {
+                    exactHits.increment();
+                    savedNanos.add(entry.loadNanos());
+                    return Optional.of(entry.value());
+                }
+                remove(key);
+            }
+        }
+        if (similarityThreshold > 0) {
+            Optional<V> near = nearest(normalized, now);
+            if (near.isPresent()) {
+                return near;
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a value for a normalized prompt.
+     *
+     * @param loadNanos how long the upstream call took
+     */
+    public void put(String normalized, V value, long loadNanos) {
+        if (value == null) {
+            return;
+        }
+        String key = digest(normalized);
+        int[] signature = null;
+        long[] bandKeys = null;
+        if (similarityThreshold > 0) {
+            signature = signature(normalized);
+            bandKeys = signature == null ? null : bandKeys(signature);
+        }
+        Entry<V> entry = new Entry<>(value, digits(normalized), negations(normalized), signature, bandKeys,
+            System.nanoTime() + ttlNanos, loadNanos);
+        upstreamNanos.add(loadNanos);
+        stores.increment();
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, entry);
+            if (bandKeys != null) {
+                for (long band : bandKeys) {
+                    bands.computeIfAbsent(band, b -> new HashMap<>()).put(key, entry);
+                }
+            }
+        }
+    }
+
+    /** Count a request that skipped the cache on purpose */
+    public void recordBypass() {
+        bypasses.increment();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bands.clear();
+        }
+    }
+
+    public ChatCacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long exact = exactHits.sum();
+        long near = nearHits.sum();
+        long missCount = misses.sum();
+        long total = exact + near + missCount;
+        double hitRate = total == 0 ? 0 : (double) (exact + near) / total;
+        long storeCount = stores.sum();
+        long avgUpstreamMs = storeCount == 0 ? 0 : upstreamNanos.sum() / storeCount / 1_000_000L;
+        return new ChatCacheStats(name, size, maxEntries, ttlNanos / 1_000_000L, similarityThreshold,
+            exact, near, missCount, bypasses.sum(), evictions.sum(),
+            Math.round(hitRate * 1000) / 1000.0, savedNanos.sum() / 1_000_000L, avgUpstreamMs);
+    }
+
+    // Số band LSH đang được giữ, để kiểm tra entry bị loại thì cũng rời khỏi chỉ mục
+    int indexedBands() {
+        synchronized (entries) {
+            return bands.size();
+        }
+    }
+
+    private Optional<V> nearest(String normalized, long now) {
+        int[] signature = signature(normalized);
+        if (signature == null) {
+            return Optional.empty();
+        }
+        long[] bandKeys = bandKeys(signature);
+        String digits = digits(normalized);
+        String negations = negations(normalized);
+        synchronized (entries) {
+            Map<String, Entry<V>> candidates = new HashMap<>();
+            for (long band : bandKeys) {
+                Map<String, Entry<V>> bucket = bands.get(band);
+                if (bucket != null) {
+                    candidates.putAll(bucket);
+                }
+            }
+            String bestKey = null;
+            double best = similarityThreshold;
+            for (Map.Entry<String, Entry<V>> candidate : candidates.entrySet()) {
+                Entry<V> entry = candidate.getValue();
+                if (now - entry.expiresAtNanos() >= 0) {
+                    continue;
+                }
+                // "tập 3 ngày" và "tập 5 ngày" rất giống nhau nhưng không cùng câu trả lời
+                if (!entry.digits().equals(digits)) {
+                    continue;
+                }
+                // Câu hỏi và câu phủ định của nó cần câu trả lời ngược nhau
+                if (!entry.negations().equals(negations)) {
+                    continue;
+                }
+                double similarity = similarity(signature, entry.signature());
+                if (similarity >= best) {
+                    best = similarity;
+                    bestKey = candidate.getKey();
+                }
+            }
+            if (bestKey == null) {
+                return Optional.empty();
+            }
+            Entry<V> entry = entries.get(bestKey);
+            nearHits.increment();
+            savedNanos.add(entry.loadNanos());
+            return Optional.of(entry.value());
+        }
+    }
+
+    private void remove(String key) {
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            unindex(key, old);
+        }
+    }
+
+    private void unindex(String key, Entry<V> entry) {
+        if (entry.bandKeys() == null) {
+            return;
+        }
+        for (long band : entry.bandKeys()) {
+            Map<String, Entry<V>> bucket = bands.get(band);
+            if (bucket != null) {
+                bucket.remove(key);
+                if (bucket.isEmpty()) {
+                    bands.remove(band);
+                }
+            }
+        }
+    }
+
+    // Chữ ký MinHash trên shingle ký tự; null nếu câu quá ngắn để so gần đúng
+    private static int[] signature(String normalized) {
+        if (normalized.length() < SHINGLE * 3) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int i = 0; i + SHINGLE <= normalized.length(); i++) {
+            long base = mix(normalized.substring(i, i + SHINGLE).hashCode());
+            for (int h = 0; h < NUM_HASHES; h++) {
+                int value = (int) ((HASH_A[h] * base + HASH_B[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            long key = b;
+            for (int r = 0; r < ROWS; r++) {
+                key = key * 31 + signature[b * ROWS + r];
+            }
+            keys[b] = mix(key);
+        }
+        return keys;
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    private static String digits(String normalized) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isDigit(c)) {
+                out.append(c);
+            } else if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+                out.append(' ');
+            }
+        }
+        return out.toString().trim();
+    }
+
+    private static String negations(String normalized) {
+        StringBuilder out = new StringBuilder();
+        for (String word : normalized.split(" ")) {
+            if (NEGATIONS.contains(word)) {
+                out.append(word).append(' ');
+            }
+        }
+        return out.toString();
+    }
+
+    // fmix64 của MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String digest(String normalized) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ufit.server.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags for read-mostly resources. The tag of a resource is the hash
+ * of its JSON body. Body and tag are computed once when the resource is first
+ * served and kept until it is invalidated, so later requests are answered
+ * from memory: 304 on a matching If-None-Match, otherwise the stored body.
+ */
+@Component
+public class EtagRegistry {
+
+    public static final String ARTICLES_LATEST = "articles:latest";
+    public static final String ARTICLES_COUNTS = "articles:counts";
+    public static final String FORUM_CATEGORIES = "forum:categories";
+
+    private record Tag(String etag, Object body) {}
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Tag> tags = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+
+    public EtagRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Answer a GET for the resource: 304 if the client already holds the
+     * current body, otherwise the current body with its ETag. The loader only
+     * runs when nothing is stored for the resource's current version.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> conditional(String resource, String ifNoneMatch, Supplier<T> loader) {
+        long version;
+        synchronized (this) {
+            Tag tag = tags.get(resource);
+            if (tag != null) {
+                return respond(ifNoneMatch, tag.etag(), (T) tag.body());
+            }
+            version = versions.getOrDefault(resource, 0L);
+        }
+        T body = loader.get();
+        String etag = hash(body);
+        synchronized (this) {
+            // Chỉ lưu khi resource không bị invalidate trong lúc đang load
+            if (versions.getOrDefault(resource, 0L) == version) {
+                tags.put(resource, new Tag(etag, body));
+            }
+        }
+        return respond(ifNoneMatch, etag, body);
+    }
+
+    /**
+     * Forget the tags of the given resources. Inside a transaction the tags
+     * are dropped again after commit, so a read of the old rows made before
+     * the commit cannot re-register a stale tag.
+     */
+    public void invalidate(String... resources) {
+        drop(resources);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(resources);
+                }
+            });
+        }
+    }
+
+    private synchronized void drop(String... resources) {
+        for (String resource : resources) {
+            tags.remove(resource);
+            versions.merge(resource, 1L, Long::sum);
+        }
+    }
+
+    private String hash(Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute ETag", e);
+        }
+    }
+
+    // If-None-Match dùng so sánh yếu: bỏ tiền tố W/ và chấp nhận danh sách hoặc "*"
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> respond(String ifNoneMatch, String etag, T body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ufit.server.cache;
+
+import com.ufit.server.dto.response.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Small in-process read-through cache: LRU bounded by entry count, per-entry
+ * TTL, and a version number that invalidates every entry at once.
+ */
+public class VersionedLruCache<K, V> {
+
+    private record Entry<V>(V value, long version, long expiresAtNanos) {}
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public VersionedLruCache(String name, int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // accessOrder = true: get() đưa entry về cuối, entry đầu là entry ít dùng nhất
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > VersionedLruCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value for the key, or compute it with the loader.
+     * The loader runs outside the lock; a value loaded across an
+     * {@link #invalidateAll()} is returned but not cached.
+     */
+    public V get(K key, Supplier<V> loader) {
+        long now = System.nanoTime();
+        long currentVersion = version.get();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.version() == currentVersion && now - entry.expiresAtNanos() < 0) {
+                hits.increment();
+                return entry.value();
+            }
+        }
+        misses.increment();
+        V value = loader.get();
+        synchronized (entries) {
+            // Không ghi đè nếu dữ liệu đã bị invalidate trong lúc đang load
+            if (version.get() == currentVersion) {
+                entries.put(key, new Entry<>(value, currentVersion, System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    /** Drop every entry; loads still in flight will not be cached */
+    public void invalidateAll() {
+        synchronized (entries) {
+            version.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        double hitRate = total == 0 ? 0 : (double) hitCount / total;
+        return new CacheStats(name, size, maxEntries, ttlNanos / 1_000_000L, version.get(),
+            hitCount, missCount, evictions.sum(), Math.round(hitRate * 1000) / 1000.0);
+    }
+}
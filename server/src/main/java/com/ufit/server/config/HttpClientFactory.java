@@ -0,0 +1,142 @@
+package com.ufit.server.config;
+
+import com.ufit.server.dto.response.HttpPoolStats;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central factory for outbound WebClients.
+ *
+ * Each upstream gets a named Reactor Netty connection pool with its own
+ * limits and timeouts, read from {@code http.client.<pool>.*} with
+ * {@code http.client.default.*} as fallback. Every client negotiates gzip,
+ * keeps connections alive and caps the size of buffered response bodies.
+ */
+@Component
+public class HttpClientFactory {
+
+    /** Settings of one named pool. */
+    public record PoolSettings(int maxConnections, int pendingAcquireMaxCount, Duration pendingAcquireTimeout,
+                               Duration connectTimeout, Duration responseTimeout, Duration maxIdleTime,
+                               Duration maxLifeTime, int maxInMemorySize) {}
+
+    private record Pool(PoolSettings settings, ConnectionProvider provider, HttpClient httpClient) {}
+
+    private record Registration(String pool, SocketAddress remote, ConnectionPoolMetrics metrics) {}
+
+    private final Environment environment;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    // Reactor Netty đăng ký một bộ metrics cho mỗi (pool, địa chỉ đích)
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    public HttpClientFactory(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * A new WebClient builder on the named pool. Builders are mutable, so
+     * every caller gets its own; the pool underneath is shared.
+     */
+    public WebClient.Builder builder(String poolName) {
+        Pool pool = pools.computeIfAbsent(poolName, this::createPool);
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(pool.httpClient()))
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(pool.settings().maxInMemorySize()));
+    }
+
+    public List<HttpPoolStats> stats() {
+        List<HttpPoolStats> result = new ArrayList<>();
+        pools.forEach((name, pool) -> {
+            int remotes = 0, active = 0, idle = 0, allocated = 0, pending = 0;
+            for (Registration registration : registrations.values()) {
+                if (registration.pool().equals(name)) {
+                    ConnectionPoolMetrics metrics = registration.metrics();
+                    remotes++;
+                    active += metrics.acquiredSize();
+                    idle += metrics.idleSize();
+                    allocated += metrics.allocatedSize();
+                    pending += metrics.pendingAcquireSize();
+                }
+            }
+            PoolSettings settings = pool.settings();
+            result.add(new HttpPoolStats(name, remotes, active, idle, allocated, pending,
+                settings.maxConnections(), settings.pendingAcquireMaxCount(),
+                settings.connectTimeout().toMillis(), settings.responseTimeout().toMillis()));
+        });
+        result.sort((a, b) -> a.name().compareTo(b.name()));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(pool -> pool.provider().dispose());
+    }
+
+    private Pool createPool(String name) {
+        PoolSettings settings = settings(name);
+        ConnectionProvider provider = ConnectionProvider.builder("http-" + name)
+            .maxConnections(settings.maxConnections())
+            .pendingAcquireMaxCount(settings.pendingAcquireMaxCount())
+            .pendingAcquireTimeout(settings.pendingAcquireTimeout())
+            .maxIdleTime(settings.maxIdleTime())
+            .maxLifeTime(settings.maxLifeTime())
+            // Dọn kết nối nhàn rỗi ở nền, tránh dùng lại socket server đã đóng
+            .evictInBackground(settings.maxIdleTime())
+            .metrics(true, () -> new ConnectionProvider.MeterRegistrar() {
+                @Override
+                public void registerMetrics(String poolName, String id, SocketAddress remote, ConnectionPoolMetrics metrics) {
+                    registrations.put(id + "|" + remote, new Registration(name, remote, metrics));
+                }
+
+                @Override
+                public void deRegisterMetrics(String poolName, String id, SocketAddress remote) {
+                    registrations.remove(id + "|" + remote);
+                }
+            })
+            .build();
+        HttpClient httpClient = HttpClient.create(provider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.connectTimeout().toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            // responseTimeout là thời gian tối đa giữa hai lần đọc của một response
+            .responseTimeout(settings.responseTimeout())
+            .keepAlive(true)
+            .compress(true);
+        return new Pool(settings, provider, httpClient);
+    }
+
+    private PoolSettings settings(String name) {
+        return new PoolSettings(
+            intProperty(name, "max-connections", 50),
+            intProperty(name, "pending-acquire-max-count", 200),
+            Duration.ofMillis(longProperty(name, "pending-acquire-timeout-ms", 5000)),
+            Duration.ofMillis(longProperty(name, "connect-timeout-ms", 5000)),
+            Duration.ofMillis(longProperty(name, "response-timeout-ms", 60000)),
+            Duration.ofMillis(longProperty(name, "max-idle-time-ms", 30000)),
+            Duration.ofMillis(longProperty(name, "max-life-time-ms", 300000)),
+            intProperty(name, "max-in-memory-size", 2 * 1024 * 1024));
+    }
+
+    private int intProperty(String pool, String key, int fallback) {
+        Integer defaultValue = environment.getProperty("http.client.default." + key, Integer.class, fallback);
+        return environment.getProperty("http.client." + pool + "." + key, Integer.class, defaultValue);
+    }
+
+    private long longProperty(String pool, String key, long fallback) {
+        Long defaultValue = environment.getProperty("http.client.default." + key, Long.class, fallback);
+        return environment.getProperty("http.client." + pool + "." + key, Long.class, defaultValue);
+    }
+}
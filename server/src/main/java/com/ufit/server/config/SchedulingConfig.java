@@ -0,0 +1,10 @@
+package com.ufit.server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Bật @Scheduled cho các tác vụ ghi dồn (write-behind) chạy nền
+}
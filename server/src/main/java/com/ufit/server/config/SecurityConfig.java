@@ -1,6 +1,9 @@
 package com.ufit.server.config;
 
 import com.ufit.server.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import com.ufit.server.security.password.AdaptiveBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,8 +12,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -47,6 +48,9 @@ public class SecurityConfig {
             // Preflight
             .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+            // Dispatch async (Mono/CompletableFuture) của request đã được phân quyền ở lần đầu
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
             // Forum: GET public, POST phải ROLE_USER
             .requestMatchers(HttpMethod.GET, "/api/forum/forum-categories").permitAll()
             .requestMatchers(HttpMethod.GET, "/api/forum/topics/**").permitAll()
@@ -80,7 +84,7 @@ public class SecurityConfig {
             .requestMatchers("/api/news/**").permitAll()
             .requestMatchers("/api/health/**").permitAll()
             .requestMatchers("/api/articles/**").permitAll()
-            .requestMatchers("/api/load-articles").permitAll()
+            .requestMatchers("/api/load-articles", "/api/load-articles/progress").permitAll()
             .requestMatchers("/favicon.ico").permitAll()
             .requestMatchers("/api/who/**").permitAll()
 
@@ -112,7 +116,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AdaptiveBCryptPasswordEncoder passwordEncoder(
+            @Value("${security.bcrypt.target-ms:250}") long targetMillis,
+            @Value("${security.bcrypt.min-cost:10}") int minCost,
+            @Value("${security.bcrypt.max-cost:14}") int maxCost) {
+        // min-cost 10 = mặc định cũ của BCryptPasswordEncoder, không bao giờ yếu hơn
+        return new AdaptiveBCryptPasswordEncoder(targetMillis, minCost, maxCost);
     }
 }
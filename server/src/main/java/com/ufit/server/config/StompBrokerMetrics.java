@@ -0,0 +1,176 @@
+package com.ufit.server.config;
+
+import com.ufit.server.dto.response.StompBrokerStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the STOMP client channels and sessions.
+ *
+ * {@link WebSocketConfig} passes its channel executors to
+ * {@link #instrumentInbound} and {@link #instrumentOutbound}, which set
+ * their overflow behaviour and timing. Sessions are tracked through
+ * {@link #sessionTracker()}.
+ */
+@Component
+public class StompBrokerMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompBrokerMetrics.class);
+    private static final String RECEIVED_ATTR = StompBrokerMetrics.class.getName() + ".received";
+
+    private volatile ThreadPoolTaskExecutor inbound;
+    private volatile ThreadPoolTaskExecutor outbound;
+    private volatile long sendTimeLimitMs;
+    private volatile int sendBufferSizeLimit;
+
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+    private final LongAdder inboundOverflow = new LongAdder();
+    private final LongAdder outboundDropped = new LongAdder();
+    private final LongAdder framesDelivered = new LongAdder();
+    private final LongAdder fanOutNanos = new LongAdder();
+    private final AtomicLong maxFanOutNanos = new AtomicLong();
+
+    /**
+     * When the inbound queue is full, the transport thread that read the frame
+     * handles it itself. That pushes back on the sending client without losing
+     * CONNECT/DISCONNECT frames, so broker subscriptions are never leaked.
+     */
+    public void instrumentInbound(ThreadPoolTaskExecutor executor) {
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            inboundOverflow.increment();
+            if (!pool.isShutdown()) {
+                task.run();
+            }
+        });
+        this.inbound = executor;
+    }
+
+    /**
+     * Time each frame from hand-off to socket write. When the queue is full,
+     * broadcast MESSAGE frames are dropped rather than stalling the broker.
+     * Protocol frames (CONNECTED, RECEIPT, ERROR) run on the caller instead.
+     */
+    public void instrumentOutbound(ThreadPoolTaskExecutor executor) {
+        executor.setTaskDecorator(TimedFrame::new);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (task instanceof TimedFrame frame && frame.droppable) {
+                outboundDropped.increment();
+                logger.debug("Dropped outbound STOMP frame, queue size {}", pool.getQueue().size());
+            } else if (!pool.isShutdown()) {
+                task.run();
+            }
+        });
+        this.outbound = executor;
+    }
+
+    public void setTransportLimits(long sendTimeLimitMs, int sendBufferSizeLimit) {
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+    }
+
+    /**
+     * Count open sessions and slow-consumer disconnects. Spring closes a session
+     * with SESSION_NOT_RELIABLE when its send buffer or send time limit is
+     * exceeded, and also when a client sends nothing before the
+     * time-to-first-message limit. Only sessions that already sent something are
+     * counted as slow consumers.
+     */
+    public WebSocketHandlerDecoratorFactory sessionTracker() {
+        return handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                openSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void handleMessage(@NonNull WebSocketSession session, @NonNull WebSocketMessage<?> message) throws Exception {
+                session.getAttributes().putIfAbsent(RECEIVED_ATTR, Boolean.TRUE);
+                super.handleMessage(session, message);
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) throws Exception {
+                openSessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(status)
+                        && session.getAttributes().containsKey(RECEIVED_ATTR)) {
+                    slowConsumerDisconnects.increment();
+                    logger.info("Closed slow STOMP session {}", session.getId());
+                }
+                super.afterConnectionClosed(session, status);
+            }
+        };
+    }
+
+    public StompBrokerStats stats() {
+        ThreadPoolExecutor in = poolOf(inbound);
+        ThreadPoolExecutor out = poolOf(outbound);
+        long frames = framesDelivered.sum();
+        double avgMs = frames == 0 ? 0 : fanOutNanos.sum() / 1e6 / frames;
+        return new StompBrokerStats(openSessions.get(), slowConsumerDisconnects.sum(),
+            in != null ? in.getPoolSize() : 0, in != null ? in.getActiveCount() : 0,
+            in != null ? in.getQueue().size() : 0, inboundOverflow.sum(),
+            out != null ? out.getPoolSize() : 0, out != null ? out.getActiveCount() : 0,
+            out != null ? out.getQueue().size() : 0, outboundDropped.sum(),
+            frames, Math.round(avgMs * 100) / 100.0,
+            Math.round(maxFanOutNanos.get() / 1e4) / 100.0,
+            sendTimeLimitMs, sendBufferSizeLimit);
+    }
+
+    private final class TimedFrame implements Runnable {
+        private final Runnable task;
+        private final boolean droppable;
+        private final long queuedAt = System.nanoTime();
+
+        TimedFrame(Runnable task) {
+            this.task = task;
+            this.droppable = task instanceof MessageHandlingRunnable handling
+                && SimpMessageType.MESSAGE.equals(
+                    SimpMessageHeaderAccessor.getMessageType(handling.getMessage().getHeaders()));
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                recordFanOut(System.nanoTime() - queuedAt);
+            }
+        }
+    }
+
+    private void recordFanOut(long nanos) {
+        framesDelivered.increment();
+        fanOutNanos.add(nanos);
+        maxFanOutNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Executor chỉ có ThreadPoolExecutor sau khi Spring khởi tạo bean
+    private static ThreadPoolExecutor poolOf(ThreadPoolTaskExecutor executor) {
+        if (executor == null) {
+            return null;
+        }
+        try {
+            return executor.getThreadPoolExecutor();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+}
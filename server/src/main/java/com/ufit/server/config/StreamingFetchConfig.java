@@ -0,0 +1,68 @@
+package com.ufit.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Turns on server-side cursor fetching for MySQL connections.
+ *
+ * Connector/J ignores a positive fetch size unless {@code useCursorFetch=true}
+ * and reads the whole result into memory. The streaming queries (chat export,
+ * karma reconcile, search index rebuild) rely on their fetch-size hint to
+ * read in chunks.
+ *
+ * This is a pool-wide change, not one scoped to those queries: cursor
+ * fetching implies server-side prepared statements, so every statement the
+ * application runs is prepared on the server and counts against MySQL's
+ * {@code max_prepared_stmt_count} (about 250 cached statements per pooled
+ * connection with the settings below). Set
+ * {@code app.jdbc.mysql-cursor-fetch=false} to keep client-side prepared
+ * statements; the streaming queries then still work but buffer their whole
+ * result. Values already set on the JDBC URL or pool win.
+ */
+@Component
+public class StreamingFetchConfig implements BeanPostProcessor {
+
+    static final String ENABLED_PROPERTY = "app.jdbc.mysql-cursor-fetch";
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingFetchConfig.class);
+
+    private static final Map<String, String> MYSQL_PROPERTIES = Map.of(
+        "useCursorFetch", "true",
+        "cachePrepStmts", "true",
+        "prepStmtCacheSize", "250",
+        "prepStmtCacheSqlLimit", "2048"
+    );
+
+    private final Environment environment;
+
+    public StreamingFetchConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof HikariDataSource dataSource
+                && environment.getProperty(ENABLED_PROPERTY, Boolean.class, true)) {
+            String url = dataSource.getJdbcUrl();
+            // Chỉ áp dụng cho MySQL; driver khác (H2...) có thể từ chối thuộc tính lạ
+            if (url != null && url.startsWith("jdbc:mysql:")) {
+                MYSQL_PROPERTIES.forEach((key, value) -> {
+                    if (!url.contains(key + "=") && !dataSource.getDataSourceProperties().containsKey(key)) {
+                        dataSource.addDataSourceProperty(key, value);
+                    }
+                });
+                logger.info("Enabled MySQL cursor fetch on pool {}: all statements now use server-side prepared "
+                    + "statements, check max_prepared_stmt_count or set {}=false", dataSource.getPoolName(), ENABLED_PROPERTY);
+            }
+        }
+        return bean;
+    }
+}
@@ -1,7 +1,9 @@
 package com.ufit.server.config;
 
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -13,8 +15,10 @@ public class WebFluxSecurityConfig {
         SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_INHERITABLETHREADLOCAL);
     }
     
+    // Builder có trạng thái: mỗi nơi inject nhận một bản riêng, dùng chung pool "default"
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+    public WebClient.Builder webClientBuilder(HttpClientFactory httpClientFactory) {
+        return httpClientFactory.builder("default");
     }
 } 
\ No newline at end of file
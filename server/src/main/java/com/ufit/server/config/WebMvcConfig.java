@@ -1,11 +1,24 @@
 package com.ufit.server.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.*;
 
+import java.time.Duration;
+
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
+
+    // Chatbot trả Mono: request async mặc định của Tomcat hết hạn sau 30s, quá ngắn cho OpenAI
+    @Value("${spring.mvc.async.request-timeout:120s}")
+    private Duration asyncRequestTimeout;
+
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeout.toMillis());
+    }
+
     @Override
     public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
         // Mọi request /uploads/** sẽ được ánh xạ đến thư mục file system ./uploads
@@ -2,6 +2,7 @@
 package com.ufit.server.config;
 
 import com.ufit.server.service.ChatMetricService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
@@ -12,6 +13,7 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.*;
 
 @Configuration
@@ -19,9 +21,34 @@ import org.springframework.web.socket.config.annotation.*;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final ChatMetricService metricService;
+    private final StompBrokerMetrics brokerMetrics;
 
-    public WebSocketConfig(ChatMetricService metricService) {
+    // 0 = mặc định theo số core
+    @Value("${websocket.inbound.core-pool-size:0}")
+    private int inboundCorePoolSize;
+    @Value("${websocket.inbound.max-pool-size:0}")
+    private int inboundMaxPoolSize;
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+    @Value("${websocket.outbound.core-pool-size:0}")
+    private int outboundCorePoolSize;
+    @Value("${websocket.outbound.max-pool-size:0}")
+    private int outboundMaxPoolSize;
+    @Value("${websocket.outbound.queue-capacity:100000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+    @Value("${websocket.transport.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+    @Value("${websocket.transport.time-to-first-message-ms:30000}")
+    private int timeToFirstMessageMs;
+
+    public WebSocketConfig(ChatMetricService metricService, StompBrokerMetrics brokerMetrics) {
         this.metricService = metricService;
+        this.brokerMetrics = brokerMetrics;
     }
 
     @Override
@@ -40,8 +67,32 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic");
     }
 
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        // Client chậm vượt quá giới hạn buffer hoặc thời gian gửi sẽ bị ngắt kết nối,
+        // thay vì giữ luồng outbound và làm chậm broadcast cho mọi người
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(brokerMetrics.sessionTracker());
+        brokerMetrics.setTransportLimits(sendTimeLimitMs, sendBufferSizeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = channelExecutor(
+            outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+        brokerMetrics.instrumentOutbound(executor);
+        registration.taskExecutor(executor);
+    }
+
     @Override
     public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = channelExecutor(
+            inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+        brokerMetrics.instrumentInbound(executor);
+        registration.taskExecutor(executor);
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
@@ -60,4 +111,16 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             }
         });
     }
+
+    // Spring đặt tên thread, khởi tạo và shutdown executor qua bean clientIn/OutboundChannelExecutor
+    private static ThreadPoolTaskExecutor channelExecutor(int corePoolSize, int maxPoolSize, int queueCapacity) {
+        int core = corePoolSize > 0 ? corePoolSize : Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(core);
+        executor.setMaxPoolSize(Math.max(core, maxPoolSize > 0 ? maxPoolSize : core * 2));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
@@ -1,18 +1,46 @@
 // src/main/java/com/ufit/server/controller/AdminController.java
 package com.ufit.server.controller;
 
+import com.ufit.server.config.HttpClientFactory;
+import com.ufit.server.config.StompBrokerMetrics;
 import com.ufit.server.dto.response.AdminDashboard;
+import com.ufit.server.dto.response.ApiResponse;
+import com.ufit.server.dto.response.CacheStats;
+import com.ufit.server.dto.response.ChatCacheStats;
+import com.ufit.server.dto.response.ChatPersistenceStats;
+import com.ufit.server.dto.response.HttpPoolStats;
+import com.ufit.server.dto.response.OpenAiGatewayStats;
+import com.ufit.server.openai.OpenAiGateway;
+import com.ufit.server.dto.response.PasswordHashingStats;
+import com.ufit.server.dto.response.StompBrokerStats;
+import com.ufit.server.security.password.PasswordHashingExecutor;
 import com.ufit.server.service.AdminService;
+import com.ufit.server.service.ArticleSearchService;
+import com.ufit.server.service.ChatBotService;
+import com.ufit.server.service.VoteService;
+import com.ufit.server.service.impl.CachingArticleService;
+import com.ufit.server.service.impl.ChatMessageWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin")
 @PreAuthorize("hasAuthority('ROLE_ADMIN')")
 public class AdminController {
 
     @Autowired private AdminService adminService;
+    @Autowired private VoteService voteService;
+    @Autowired private ArticleSearchService articleSearchService;
+    @Autowired private CachingArticleService cachingArticleService;
+    @Autowired private PasswordHashingExecutor passwordHashingExecutor;
+    @Autowired private ChatBotService chatBotService;
+    @Autowired private OpenAiGateway openAiGateway;
+    @Autowired private HttpClientFactory httpClientFactory;
+    @Autowired private ChatMessageWriter chatMessageWriter;
+    @Autowired private StompBrokerMetrics stompBrokerMetrics;
 
     @GetMapping("/dashboard")
     public AdminDashboard dashboard() {
@@ -24,4 +52,57 @@ public class AdminController {
                            @RequestParam String role) {
         adminService.assignRole(username, role);
     }
+
+    @PostMapping("/karma/reconcile")
+    public ApiResponse<Integer> reconcileKarma() {
+        int authors = voteService.reconcileKarma();
+        return ApiResponse.success("Vote counts and karma totals rebuilt", authors);
+    }
+
+    @PostMapping("/articles/search-index/rebuild")
+    public ApiResponse<Integer> rebuildArticleSearchIndex() {
+        int indexed = articleSearchService.rebuild();
+        return ApiResponse.success("Article search index rebuilt", indexed);
+    }
+
+    @GetMapping("/articles/cache/stats")
+    public ApiResponse<CacheStats> articleCacheStats() {
+        return ApiResponse.success("Article cache statistics", cachingArticleService.getCacheStats());
+    }
+
+    @GetMapping("/security/password-hashing")
+    public ApiResponse<PasswordHashingStats> passwordHashingStats() {
+        return ApiResponse.success("Password hashing statistics", passwordHashingExecutor.stats());
+    }
+
+    @GetMapping("/chatbot/cache/stats")
+    public ApiResponse<List<ChatCacheStats>> chatbotCacheStats() {
+        return ApiResponse.success("Chatbot cache statistics", chatBotService.getCacheStats());
+    }
+
+    @DeleteMapping("/chatbot/cache")
+    public ApiResponse<Void> clearChatbotCache() {
+        chatBotService.clearCache();
+        return ApiResponse.success("Chatbot cache cleared", null);
+    }
+
+    @GetMapping("/openai/gateway")
+    public ApiResponse<OpenAiGatewayStats> openAiGatewayStats() {
+        return ApiResponse.success("OpenAI gateway statistics", openAiGateway.stats());
+    }
+
+    @GetMapping("/http-clients")
+    public ApiResponse<List<HttpPoolStats>> httpClientStats() {
+        return ApiResponse.success("Outbound HTTP pool statistics", httpClientFactory.stats());
+    }
+
+    @GetMapping("/chat/persistence")
+    public ApiResponse<ChatPersistenceStats> chatPersistenceStats() {
+        return ApiResponse.success("Chat persistence statistics", chatMessageWriter.stats());
+    }
+
+    @GetMapping("/websocket")
+    public ApiResponse<StompBrokerStats> websocketStats() {
+        return ApiResponse.success("STOMP broker statistics", stompBrokerMetrics.stats());
+    }
 }
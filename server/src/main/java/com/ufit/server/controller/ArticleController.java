@@ -1,10 +1,14 @@
 package com.ufit.server.controller;
 
+import com.ufit.server.cache.EtagRegistry;
 import com.ufit.server.dto.response.ApiResponse;
+import com.ufit.server.dto.response.ArticleSearchResponse;
 import com.ufit.server.dto.ArticleDTO;
-import com.ufit.server.entity.Article;
+import com.ufit.server.repository.projection.ArticleSummary;
+import com.ufit.server.service.ArticleSearchService;
 import com.ufit.server.service.ArticleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,11 +30,17 @@ public class ArticleController {
     @Autowired
     private ArticleService articleService;
 
+    @Autowired
+    private ArticleSearchService articleSearchService;
+
+    @Autowired
+    private EtagRegistry etagRegistry;
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Article>> getArticlesByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ArticleSummary>> getArticlesByCategory(@PathVariable String category) {
         logger.info("Fetching articles for category: {}", category);
         try {
-            List<Article> articles = articleService.getArticlesByCategory(category.toLowerCase());
+            List<ArticleSummary> articles = articleService.getArticleSummariesByCategory(category.toLowerCase());
             return ResponseEntity.ok(articles);
         } catch (Exception e) {
             logger.error("Error fetching articles for category: {}", category, e);
@@ -62,13 +72,13 @@ public class ArticleController {
         }
         
         try {
-            List<Article> articles = articleService.getArticlesByCategory(category.toLowerCase());
+            List<ArticleSummary> articles = articleService.getArticleSummariesByCategory(category.toLowerCase());
             if (articles.isEmpty()) {
                 logger.warn("Invalid category requested: {}", category);
                 ApiResponse<?> response = new ApiResponse<>("ERROR", "No articles found for category: " + category, null);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
-            ApiResponse<List<Article>> response = new ApiResponse<>("SUCCESS", "Articles retrieved successfully", articles);
+            ApiResponse<List<ArticleSummary>> response = new ApiResponse<>("SUCCESS", "Articles retrieved successfully", articles);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error fetching articles for category: {}", category, e);
@@ -78,10 +88,10 @@ public class ArticleController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Article>> getAllArticles() {
+    public ResponseEntity<List<ArticleSummary>> getAllArticles() {
         logger.info("Fetching all articles");
         try {
-            List<Article> articles = articleService.getAllArticles();
+            List<ArticleSummary> articles = articleService.getArticleSummaries();
             logger.info("Found {} total articles", articles.size());
             return ResponseEntity.ok(articles);
         } catch (Exception e) {
@@ -91,10 +101,10 @@ public class ArticleController {
     }
     
     @GetMapping("/all")
-    public ResponseEntity<List<Article>> getAllArticlesAlternative() {
+    public ResponseEntity<List<ArticleSummary>> getAllArticlesAlternative() {
         logger.info("Fetching all articles (alternative endpoint)");
         try {
-            List<Article> articles = articleService.getAllArticles();
+            List<ArticleSummary> articles = articleService.getArticleSummaries();
             logger.info("Found {} total articles", articles.size());
             return ResponseEntity.ok(articles);
         } catch (Exception e) {
@@ -104,12 +114,14 @@ public class ArticleController {
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<ApiResponse<?>> getLatestArticles() {
+    public ResponseEntity<ApiResponse<?>> getLatestArticles(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Fetching latest articles");
         try {
-            List<ArticleDTO> articles = articleService.getLatestArticles();
-            ApiResponse<List<ArticleDTO>> response = new ApiResponse<>("SUCCESS", "Latest articles retrieved successfully", articles);
-            return ResponseEntity.ok(response);
+            return etagRegistry.conditional(EtagRegistry.ARTICLES_LATEST, ifNoneMatch, () -> {
+                List<ArticleDTO> articles = articleService.getLatestArticles();
+                return new ApiResponse<>("SUCCESS", "Latest articles retrieved successfully", articles);
+            });
         } catch (Exception e) {
             logger.error("Error fetching latest articles", e);
             ApiResponse<?> response = new ApiResponse<>("ERROR", "Error retrieving latest articles: " + e.getMessage(), null);
@@ -118,12 +130,15 @@ public class ArticleController {
     }
     
     @GetMapping("/counts")
-    public ResponseEntity<Map<String, Long>> getArticleCounts() {
+    public ResponseEntity<Map<String, Long>> getArticleCounts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Received request for article counts");
         try {
-            Map<String, Long> counts = articleService.getArticleCounts();
-            logger.info("Returning article counts: {}", counts);
-            return ResponseEntity.ok(counts);
+            return etagRegistry.conditional(EtagRegistry.ARTICLES_COUNTS, ifNoneMatch, () -> {
+                Map<String, Long> counts = articleService.getArticleCounts();
+                logger.info("Returning article counts: {}", counts);
+                return counts;
+            });
         } catch (Exception e) {
             logger.error("Error fetching article counts", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
@@ -131,9 +146,19 @@ public class ArticleController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ArticleDTO>> searchArticles(@RequestParam String query) {
-        logger.info("Received search request with query: {}", query);
+    public ResponseEntity<?> searchArticles(
+            @RequestParam String query,
+            @RequestParam(required = false) String mode,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        logger.info("Received search request with query: {} (mode: {})", query, mode);
         try {
+            // mode=ranked: tìm trên inverted index, xếp hạng BM25, có phân trang và snippet
+            if ("ranked".equalsIgnoreCase(mode)) {
+                ArticleSearchResponse results = articleSearchService.search(query, page, size);
+                logger.info("Found {} ranked results for query '{}'", results.total(), query);
+                return ResponseEntity.ok(results);
+            }
             List<ArticleDTO> results = articleService.searchArticles(query);
             logger.info("Found {} results for query '{}'", results.size(), query);
             return ResponseEntity.ok(results);
@@ -151,7 +176,7 @@ public class ArticleController {
         response.put("timestamp", System.currentTimeMillis());
         
         try {
-            long articleCount = articleService.getAllArticles().size();
+            long articleCount = articleService.countArticles();
             response.put("totalArticles", articleCount);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -8,9 +8,15 @@ import com.ufit.server.dto.response.JwtAuthResponse;
 import com.ufit.server.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -27,12 +33,31 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
+        return authService.login(request)  // trả JwtAuthResponse
+            .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+            .exceptionally(ex -> {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.badRequest().body(new ErrorResponse(cause.getMessage()));
+                }
+                if (cause instanceof RejectedExecutionException) {
+                    // Hàng đợi băm mật khẩu đã đầy
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(new ErrorResponse("Too many login attempts, please retry shortly"));
+                }
+                throw ex instanceof CompletionException ce ? ce : new CompletionException(cause);
+            });
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
         try {
-            JwtAuthResponse response = authService.login(request);  // trả JwtAuthResponse
+            JwtAuthResponse response = authService.refresh(request.refreshToken());
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse(e.getMessage()));
         }
     }
 
@@ -1,9 +1,12 @@
 // server/src/main/java/com/ufit/server/controller/CategoryController.java
 package com.ufit.server.controller;
 
+import com.ufit.server.cache.EtagRegistry;
 import com.ufit.server.entity.Category;
 import com.ufit.server.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,9 +18,14 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private EtagRegistry etagRegistry;
+
     @GetMapping
-    public List<Category> listCategories() {
+    public ResponseEntity<List<Category>> listCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         // Return all categories from the database instead of enum values
-        return categoryService.getAllCategories();
+        return etagRegistry.conditional(EtagRegistry.FORUM_CATEGORIES, ifNoneMatch,
+            categoryService::getAllCategories);
     }
 }
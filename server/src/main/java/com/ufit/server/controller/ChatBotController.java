@@ -3,54 +3,88 @@ package com.ufit.server.controller;
 import com.ufit.server.dto.request.ChatBotRequest;
 import com.ufit.server.dto.request.WorkoutPlanDto;
 import com.ufit.server.dto.response.ApiResponse;
+import com.ufit.server.exception.RateLimitExceededException;
 import com.ufit.server.service.ChatBotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/chatbot")
 public class ChatBotController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatBotController.class);
+
     @Autowired
     private ChatBotService chatBotService;
 
     @PostMapping("/message")
-    public ResponseEntity<ApiResponse<String>> ask(@RequestBody ChatBotRequest request, Authentication authentication) {
-        try {
-            // Log the request and authentication status
-            System.out.println("Chatbot request received from: " + 
-                              (authentication != null ? authentication.getName() : "unauthenticated user"));
-                              
-            // Block on the reactive response - this is okay for this endpoint
-            String response = chatBotService.ask(request).block();
-            
-            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Fitness advice generated", response));
-        } catch (Exception e) {
-            System.err.println("Error processing chat request: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError()
-                .body(new ApiResponse<>("ERROR", e.getMessage(), null));
-        }
+    public Mono<ResponseEntity<ApiResponse<String>>> ask(@RequestBody ChatBotRequest request, Authentication authentication) {
+        // Log the request and authentication status
+        logger.debug("Chatbot request received from: {}",
+            authentication != null ? authentication.getName() : "unauthenticated user");
+
+        // Trả Mono cho Spring MVC: thread servlet được giải phóng trong lúc chờ OpenAI
+        return chatBotService.ask(request)
+            .map(response -> ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Fitness advice generated", response)))
+            .onErrorResume(e -> {
+                logger.warn("Error processing chat request", e);
+                return Mono.just(errorResponse(e));
+            });
+    }
+
+    @PostMapping(value = "/message/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, String>>> askStream(@RequestBody ChatBotRequest request, Authentication authentication) {
+        logger.debug("Streaming chatbot request received from: {}",
+            authentication != null ? authentication.getName() : "unauthenticated user");
+
+        // event "delta": {"content": ...}; "done": kết thúc; "error": {"message": ..., "retryAfter"?: ...}
+        // Gửi dạng JSON vì client SSE bỏ dấu cách đầu dòng data, mà delta hay bắt đầu bằng dấu cách
+        return chatBotService.askStream(request)
+            .map(delta -> ServerSentEvent.builder(Map.of("content", delta)).event("delta").build())
+            .concatWith(Mono.just(ServerSentEvent.<Map<String, String>>builder(Map.of()).event("done").build()))
+            .onErrorResume(e -> {
+                logger.warn("Error streaming chat response", e);
+                Map<String, String> error = e instanceof RateLimitExceededException limited
+                    ? Map.of("message", e.getMessage(), "retryAfter", String.valueOf(limited.getRetryAfterSeconds()))
+                    : Map.of("message", String.valueOf(e.getMessage()));
+                return Mono.just(ServerSentEvent.builder(error).event("error").build());
+            });
     }
 
     @PostMapping("/plan")
-    public ResponseEntity<ApiResponse<WorkoutPlanDto>> getPlan(@RequestBody ChatBotRequest request, Authentication authentication) {
-        try {
-            // Log the request and authentication status
-            System.out.println("Plan request received from: " + 
-                              (authentication != null ? authentication.getName() : "unauthenticated user"));
-                              
-            // Block on the reactive response - this is okay for this endpoint
-            WorkoutPlanDto plan = chatBotService.askForPlan(request).block();
-            
-            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Plan generated", plan));
-        } catch (Exception e) {
-            System.err.println("Error generating plan: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError()
+    public Mono<ResponseEntity<ApiResponse<WorkoutPlanDto>>> getPlan(@RequestBody ChatBotRequest request, Authentication authentication) {
+        // Log the request and authentication status
+        logger.debug("Plan request received from: {}",
+            authentication != null ? authentication.getName() : "unauthenticated user");
+
+        return chatBotService.askForPlan(request)
+            .map(plan -> ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Plan generated", plan)))
+            .onErrorResume(e -> {
+                logger.warn("Error generating plan", e);
+                return Mono.just(errorResponse(e));
+            });
+    }
+
+    // Bị giới hạn tốc độ -> 429 kèm Retry-After; lỗi khác -> 500
+    private static <T> ResponseEntity<ApiResponse<T>> errorResponse(Throwable e) {
+        if (e instanceof RateLimitExceededException limited) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(limited.getRetryAfterSeconds()))
                 .body(new ApiResponse<>("ERROR", e.getMessage(), null));
         }
+        return ResponseEntity.internalServerError()
+            .body(new ApiResponse<>("ERROR", e.getMessage(), null));
     }
-}
\ No newline at end of file
+}
@@ -2,28 +2,34 @@
 package com.ufit.server.controller;
 
 import com.ufit.server.dto.ChatMessage;
-import com.ufit.server.entity.ChatEntity;
-import com.ufit.server.repository.ChatMessageRepository;
-import com.ufit.server.service.ChatLogService;
+import com.ufit.server.dto.response.ApiResponse;
+import com.ufit.server.dto.response.ChatHistoryPage;
+import com.ufit.server.service.ChatHistoryService;
+import com.ufit.server.service.impl.ChatMessageWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Controller
 public class ChatController {
 
     @Autowired
-    private ChatMessageRepository repo;
+    private ChatMessageWriter chatMessageWriter;
 
     @MessageMapping("/chat.send")
     @SendTo("/topic/chat")
@@ -33,13 +39,10 @@ public class ChatController {
             Principal principal = headerAccessor.getUser();
             String username = (principal != null) ? principal.getName() : message.getSender();
             
-            // Save to database with timestamp
-            repo.save(new ChatEntity(
-                null,
-                username,
-                message.getContent(),
-                LocalDateTime.now()
-            ));
+            // Ghi dồn theo batch ở nền; hàng đợi đầy thì từ chối thay vì phát tin không được lưu
+            if (!chatMessageWriter.enqueue(username, message.getContent(), LocalDateTime.now())) {
+                throw new IllegalStateException("Chat is busy, please resend your message");
+            }
             
             return message;
         } catch (Exception e) {
@@ -56,11 +59,47 @@ public class ChatController {
 @PreAuthorize("hasAuthority('ROLE_MODERATOR')")
 class ChatModeratorController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
-    private ChatMessageRepository chatRepo;
-    
+    private ChatHistoryService chatHistoryService;
+
+    /**
+     * Newest-first page of public chat, optionally filtered by sender and a
+     * [from, to) time window. Pass the returned nextCursor to get older messages.
+     */
     @GetMapping
-    public List<ChatEntity> getAllChats() {
-        return chatRepo.findAllByOrderByTimestampDesc();
+    public ResponseEntity<ApiResponse<ChatHistoryPage>> getChats(
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            ChatHistoryPage page = chatHistoryService.getPage(sender, from, to, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Chat history retrieved", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Streams the whole window oldest-first as NDJSON, one message per line,
+     * without loading it into memory.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportChats(
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        // Kiểm tra khoảng thời gian trước khi bắt đầu ghi response
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        StreamingResponseBody body = out -> chatHistoryService.exportNdjson(sender, from, to, out);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"chat-history.ndjson\"")
+            .body(body);
     }
 }
@@ -1,5 +1,7 @@
 package com.ufit.server.controller;
 
+import com.ufit.server.dto.response.ImportProgress;
+import com.ufit.server.service.ArticleImportService;
 import com.ufit.server.service.ArticleService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,21 +14,32 @@ import java.io.IOException;
 public class DataLoadController {
 
     private final ArticleService articleService;
+    private final ArticleImportService articleImportService;
 
-    public DataLoadController(ArticleService articleService) {
+    public DataLoadController(ArticleService articleService, ArticleImportService articleImportService) {
         this.articleService = articleService;
+        this.articleImportService = articleImportService;
     }
 
     @GetMapping("/api/load-articles")
     public String loadArticles() {
         try {
+            // Đi qua ArticleService để cache bài viết được invalidate
             articleService.loadArticlesFromJson();
-            long total = articleService.getAllArticles().size();
-            return "✅ Loaded articles from cleaned_output.json! Total in DB: " + total;
-        } catch (IOException e) {
+            ImportProgress result = articleImportService.getProgress();
+            return "✅ Loaded articles from cleaned_output.json! Read: " + result.processed()
+                + ", inserted: " + result.inserted()
+                + ", skipped: " + result.skipped()
+                + " (" + result.articlesPerSecond() + " articles/s, " + result.elapsedMs() + " ms)";
+        } catch (IOException | IllegalStateException e) {
             return "❌ Failed to load articles: " + e.getMessage();
         }
     }
+
+    @GetMapping("/api/load-articles/progress")
+    public ImportProgress loadProgress() {
+        return articleImportService.getProgress();
+    }
     
     @GetMapping("/api/clear-articles")
     public String clearArticles() {
@@ -4,6 +4,7 @@ import com.ufit.server.dto.request.TopicRequest;
 import com.ufit.server.dto.request.VoteRequest;
 import com.ufit.server.dto.response.ApiResponse;
 import com.ufit.server.dto.response.TopicResponse;
+import com.ufit.server.dto.response.TopicPageResponse;
 import com.ufit.server.dto.response.PostResponse;
 import com.ufit.server.dto.response.CategoryDto;
 import com.ufit.server.entity.ForumTopic;
@@ -13,11 +14,16 @@ import com.ufit.server.entity.ForumVote;
 import com.ufit.server.repository.ForumTopicRepository;
 import com.ufit.server.repository.ForumPostRepository;
 import com.ufit.server.repository.ForumVoteRepository;
+import com.ufit.server.repository.projection.PostVoteCount;
+import com.ufit.server.repository.projection.TopicSummary;
 import com.ufit.server.service.StorageService;
 import com.ufit.server.service.VoteService;
 import com.ufit.server.service.CategoryService;
+import com.ufit.server.service.ForumThreadService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,9 +31,13 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.HttpStatus;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.time.LocalDateTime;
@@ -43,20 +53,82 @@ public class ForumController {
     @Autowired private VoteService voteService;
     @Autowired private StorageService storageService;
     @Autowired private CategoryService categoryService;
+    @Autowired private ForumThreadService threadService;
 
+    private static final int MAX_TOPIC_PAGE_SIZE = 100;
+    // Giới hạn trên của DATETIME trong MySQL, dùng làm con trỏ cho trang đầu
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Newest topics, at most {@value #MAX_TOPIC_PAGE_SIZE}. Use /topics/page to
+     * walk further back.
+     */
     @GetMapping("/topics")
-    public ResponseEntity<ApiResponse<List<TopicResponse>>> getTopics() {
+    public ResponseEntity<ApiResponse<List<TopicResponse>>> getTopics(
+        @RequestParam(defaultValue = "" + MAX_TOPIC_PAGE_SIZE) int limit
+    ) {
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_TOPIC_PAGE_SIZE));
+            List<TopicResponse> topicResponses = topicRepo.findTopicSummaries(PageRequest.ofSize(pageSize)).stream()
+                .map(this::mapToTopicResponse)
+                .collect(Collectors.toList());
+
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Topics retrieved successfully", topicResponses));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("ERROR", e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/topics/page")
+    public ResponseEntity<ApiResponse<TopicPageResponse>> getTopicPage(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String category
+    ) {
         try {
-            List<ForumTopic> topics = topicRepo.findAll();
+            int pageSize = Math.max(1, Math.min(size, MAX_TOPIC_PAGE_SIZE));
+
+            // Trang đầu: con trỏ "vô cực" để dùng chung một câu truy vấn keyset
+            LocalDateTime beforeCreatedAt = FIRST_PAGE_CREATED_AT;
+            Long beforeId = Long.MAX_VALUE;
+            if (cursor != null && !cursor.isBlank()) {
+                String[] parts = decodeTopicCursor(cursor);
+                beforeCreatedAt = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            }
+
+            // Lấy dư 1 phần tử để biết còn trang sau hay không
+            Pageable limit = PageRequest.ofSize(pageSize + 1);
+            List<ForumTopic> topics;
+            if (category != null && !category.isBlank()) {
+                Category filter = categoryService.getAllCategories().stream()
+                    .filter(c -> c.getName().equalsIgnoreCase(category))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid category: " + category));
+                topics = topicRepo.findAllByCategoryBefore(filter, beforeCreatedAt, beforeId, limit);
+            } else {
+                topics = topicRepo.findAllBefore(beforeCreatedAt, beforeId, limit);
+            }
+
+            String nextCursor = null;
+            if (topics.size() > pageSize) {
+                topics = topics.subList(0, pageSize);
+                ForumTopic last = topics.get(pageSize - 1);
+                nextCursor = encodeTopicCursor(last.getCreatedAt(), last.getId());
+            }
+
+            Map<Long, PostVoteCount> voteCounts = topics.isEmpty()
+                ? Map.of()
+                : voteRepository.countVotesByPostIds(topics.stream().map(ForumTopic::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(PostVoteCount::getPostId, Function.identity()));
 
             List<TopicResponse> topicResponses = topics.stream()
                 .map(topic -> {
                     CategoryDto categoryDto = topic.getCategory() != null
                         ? new CategoryDto(topic.getCategory().getId(), topic.getCategory().getName())
                         : null;
-
-                    int upvotes = voteRepository.countByPostIdAndIsUpvote(topic.getId(), true);
-                    int downvotes = voteRepository.countByPostIdAndIsUpvote(topic.getId(), false);
+                    PostVoteCount counts = voteCounts.get(topic.getId());
 
                     return new TopicResponse(
                         topic.getId(),
@@ -64,15 +136,16 @@ public class ForumController {
                         topic.getAuthor(),
                         topic.getCreatedAt(),
                         categoryDto,
-                        upvotes,
-                        downvotes,
+                        counts != null ? counts.getUpvotes().intValue() : 0,
+                        counts != null ? counts.getDownvotes().intValue() : 0,
                         null,
                         null
                     );
                 })
                 .collect(Collectors.toList());
 
-            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Topics retrieved successfully", topicResponses));
+            return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Topics retrieved successfully",
+                new TopicPageResponse(topicResponses, nextCursor)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse<>("ERROR", e.getMessage(), null));
         }
@@ -97,10 +170,7 @@ public class ForumController {
                 userVoteIsUpvote = userVote.map(ForumVote::isUpvote).orElse(null);
             }
 
-            List<ForumPost> posts = postRepo.findByTopicIdAndParentPostIsNull(id);
-            List<PostResponse> postResponses = posts.stream()
-                .map(p -> mapToPostResponse(p, principal != null ? principal.getName() : null))
-                .collect(Collectors.toList());
+            List<PostResponse> postResponses = threadService.loadThread(id, principal != null ? principal.getName() : null);
 
             TopicResponse response = new TopicResponse(
                 topic.getId(),
@@ -157,10 +227,7 @@ public class ForumController {
     @GetMapping("/topics/{topicId}/posts")
     public ResponseEntity<ApiResponse<List<PostResponse>>> getPostsForTopic(@PathVariable Long topicId, Principal principal) {
         try {
-            List<ForumPost> posts = postRepo.findByTopicIdAndParentPostIsNull(topicId);
-            List<PostResponse> postResponses = posts.stream()
-                .map(p -> mapToPostResponse(p, principal != null ? principal.getName() : null))
-                .collect(Collectors.toList());
+            List<PostResponse> postResponses = threadService.loadThread(topicId, principal != null ? principal.getName() : null);
 
             return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Posts retrieved successfully", postResponses));
         } catch (Exception e) {
@@ -189,7 +256,7 @@ public class ForumController {
         }
 
         ForumPost saved = postRepo.save(post);
-        return mapToPostResponse(saved, principal.getName());
+        return threadService.loadPost(saved.getId(), principal.getName());
     }
 
     @PostMapping("/posts/{postId}/vote")
@@ -204,9 +271,8 @@ public ResponseEntity<ApiResponse<PostResponse>> votePost(
                 .body(new ApiResponse<>("ERROR", "You must be logged in to vote", null));
         }
         
-        ForumVote vote = voteService.processVote(postId, principal.getName(), voteRequest.isUpvote());
-        ForumPost post = vote.getPost();
-        PostResponse postResponse = mapToPostResponse(post, principal.getName());
+        voteService.processVote(postId, principal.getName(), voteRequest.isUpvote());
+        PostResponse postResponse = threadService.loadPost(postId, principal.getName());
         
         return ResponseEntity.ok(new ApiResponse<>("SUCCESS", "Vote processed successfully", postResponse));
     } catch (Exception e) {
@@ -216,28 +282,39 @@ public ResponseEntity<ApiResponse<PostResponse>> votePost(
 }
 
 
-    private PostResponse mapToPostResponse(ForumPost post, String username) {
-        Optional<ForumVote> userVote = voteRepository.findByPostIdAndUsername(post.getId(), username);
+    private static String encodeTopicCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-        List<PostResponse> replies = new ArrayList<>();
-        if (post.getParentPost() == null) {
-            replies = post.getReplies().stream()
-                .map(reply -> mapToPostResponse(reply, username))
-                .collect(Collectors.toList());
+    private static String[] decodeTopicCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("_", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
         }
+    }
 
-        return new PostResponse(
-            post.getId(),
-            post.getAuthor(),
-            post.getContent(),
-            post.getCreatedAt(),
-            post.getImageUrl(),
-            post.getUpvotes(),
-            post.getDownvotes(),
-            post.getParentPost() != null ? post.getParentPost().getId() : null,
-            replies,
-            userVote.isPresent(),
-            userVote.map(ForumVote::isUpvote).orElse(null)
+    private TopicResponse mapToTopicResponse(TopicSummary summary) {
+        CategoryDto categoryDto = summary.getCategoryId() != null
+            ? new CategoryDto(summary.getCategoryId(), summary.getCategoryName())
+            : null;
+
+        return new TopicResponse(
+            summary.getId(),
+            summary.getTitle(),
+            summary.getAuthor(),
+            summary.getCreatedAt(),
+            categoryDto,
+            summary.getUpvotes().intValue(),
+            summary.getDownvotes().intValue(),
+            null,
+            null
         );
     }
 }
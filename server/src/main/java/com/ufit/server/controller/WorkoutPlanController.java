@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
 import java.security.Principal;
 import java.util.List;
@@ -30,7 +31,7 @@ public class WorkoutPlanController {
 
     /** 1) Preview (chưa lưu) */
     @PostMapping("/preview")
-    public WorkoutPlanDto previewPlan(
+    public Mono<WorkoutPlanDto> previewPlan(
         @RequestBody ChatBotRequest req,
         Principal principal
     ) {
@@ -6,5 +6,7 @@ public record ChatBotRequest(
     Double height,
     Double weight,
     String aim,
-    boolean previewPlan
+    boolean previewPlan,
+    // true: bỏ qua cache câu trả lời, luôn hỏi lại OpenAI
+    boolean noCache
 ) {}
@@ -0,0 +1,8 @@
+package com.ufit.server.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequest(
+    @NotBlank(message = "Refresh token không được để trống")
+    String refreshToken
+) {}
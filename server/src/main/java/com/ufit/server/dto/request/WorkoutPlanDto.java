@@ -1,8 +1,15 @@
 // server/src/main/java/com/ufit/server/dto/request/WorkoutPlanDto.java
 package com.ufit.server.dto.request;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public record WorkoutPlanDto(
@@ -10,13 +17,53 @@ public record WorkoutPlanDto(
     List<String> details
 ) {
     private static final ObjectMapper M = new ObjectMapper();
+    private static final JsonFactory FACTORY = M.getFactory();
+
+    /**
+     * Read a plan from JSON, or from text that embeds one JSON object (an AI
+     * reply wrapped in a code fence, say). Tokens are streamed straight into
+     * the record starting at the first '{' and reading stops at the matching
+     * '}', so no trimmed or cut-out copy of the text is made. Unknown fields
+     * are skipped; the returned detail list is unmodifiable.
+     */
     public static WorkoutPlanDto fromJson(String json) {
-        try {
-            return M.readValue(json, WorkoutPlanDto.class);
-        } catch (Exception e) {
+        int start = json == null ? -1 : json.indexOf('{');
+        if (start < 0) {
+            throw new RuntimeException("Failed to parse plan JSON: no JSON object found");
+        }
+        try (StringReader reader = new StringReader(json)) {
+            reader.skip(start);
+            try (JsonParser parser = FACTORY.createParser(reader)) {
+                parser.nextToken();
+                String title = null;
+                List<String> details = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("title".equals(field) && value == JsonToken.VALUE_STRING) {
+                        title = parser.getText();
+                    } else if ("details".equals(field) && value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                                details.add(parser.getText());
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (parser.currentToken() != JsonToken.END_OBJECT) {
+                    throw new IOException("Unexpected token " + parser.currentToken());
+                }
+                return new WorkoutPlanDto(title, Collections.unmodifiableList(details));
+            }
+        } catch (IOException e) {
             throw new RuntimeException("Failed to parse plan JSON", e);
         }
     }
+
     public String toJson() {
         try {
             return M.writeValueAsString(this);
@@ -0,0 +1,14 @@
+package com.ufit.server.dto.response;
+
+import java.time.LocalDateTime;
+
+public record ArticleSearchHit(
+    Long id,
+    String title,
+    String category,
+    String imageUrl,
+    LocalDateTime createdAt,
+    double score,
+    String highlightedTitle, // HTML, từ khoá nằm trong <mark>
+    String snippet           // HTML, đoạn nội dung khớp nhiều từ khoá nhất
+) {}
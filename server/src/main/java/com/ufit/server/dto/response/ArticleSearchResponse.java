@@ -0,0 +1,11 @@
+package com.ufit.server.dto.response;
+
+import java.util.List;
+
+public record ArticleSearchResponse(
+    String query,
+    long total,
+    int page,
+    int size,
+    List<ArticleSearchHit> results
+) {}
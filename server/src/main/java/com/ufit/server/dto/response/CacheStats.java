@@ -0,0 +1,13 @@
+package com.ufit.server.dto.response;
+
+public record CacheStats(
+    String name,
+    int size,
+    int maxEntries,
+    long ttlMs,
+    long version,
+    long hits,
+    long misses,
+    long evictions,
+    double hitRate
+) {}
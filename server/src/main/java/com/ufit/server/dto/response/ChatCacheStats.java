@@ -0,0 +1,17 @@
+package com.ufit.server.dto.response;
+
+public record ChatCacheStats(
+    String name,
+    int size,
+    int maxEntries,
+    long ttlMs,
+    double similarityThreshold,
+    long exactHits,
+    long nearHits,
+    long misses,
+    long bypasses,
+    long evictions,
+    double hitRate,
+    long savedLatencyMs,
+    long avgUpstreamMs
+) {}
@@ -0,0 +1,10 @@
+package com.ufit.server.dto.response;
+
+import com.ufit.server.entity.ChatEntity;
+
+import java.util.List;
+
+public record ChatHistoryPage(
+    List<ChatEntity> messages,
+    String nextCursor // null khi đã tới trang cuối
+) {}
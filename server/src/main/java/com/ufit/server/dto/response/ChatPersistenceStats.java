@@ -0,0 +1,13 @@
+package com.ufit.server.dto.response;
+
+public record ChatPersistenceStats(
+    int queued,
+    int queueCapacity,
+    int flushSize,
+    long flushIntervalMs,
+    long written,
+    long batches,
+    double avgBatchSize,
+    long rejected,
+    long failed
+) {}
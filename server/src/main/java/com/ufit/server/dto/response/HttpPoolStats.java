@@ -0,0 +1,14 @@
+package com.ufit.server.dto.response;
+
+public record HttpPoolStats(
+    String name,
+    int remotes,
+    int activeConnections,
+    int idleConnections,
+    int allocatedConnections,
+    int pendingAcquires,
+    int maxConnections,
+    int maxPendingAcquires,
+    long connectTimeoutMs,
+    long responseTimeoutMs
+) {}
@@ -0,0 +1,15 @@
+package com.ufit.server.dto.response;
+
+import java.time.LocalDateTime;
+
+public record ImportProgress(
+    String status,          // IDLE, RUNNING, COMPLETED, FAILED
+    long processed,         // số bài đã đọc từ file
+    long inserted,          // số bài mới được ghi vào DB
+    long skipped,           // trùng href hoặc thiếu href
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    long elapsedMs,
+    double articlesPerSecond,
+    String error
+) {}
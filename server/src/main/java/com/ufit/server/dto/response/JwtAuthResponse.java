@@ -8,5 +8,7 @@ public record JwtAuthResponse(
     String token,
     String role, // Thêm role
     long expiresAt, // Thêm thời gian hết hạn (epoch time in seconds)
+    String refreshToken, // Dùng cho /api/auth/refresh, không gửi kèm request thường
+    long refreshExpiresAt, // epoch time in seconds
     String message
 ) {}
@@ -0,0 +1,18 @@
+package com.ufit.server.dto.response;
+
+public record OpenAiGatewayStats(
+    long requests,
+    long coalesced,
+    long upstreamCalls,
+    int inFlightKeys,
+    int activeCalls,
+    int queued,
+    int maxConcurrent,
+    long userRejected,
+    long globalRejected,
+    long queueRejected,
+    long queueTimeouts,
+    long upstream429,
+    double avgQueueWaitMs,
+    double globalTokensAvailable
+) {}
@@ -0,0 +1,13 @@
+package com.ufit.server.dto.response;
+
+public record PasswordHashingStats(
+    int bcryptCost,
+    long calibratedMsPerHash,
+    int threads,
+    int activeThreads,
+    int queueDepth,
+    int queueCapacity,
+    long completed,
+    long rejected,
+    double avgQueueWaitMs
+) {}
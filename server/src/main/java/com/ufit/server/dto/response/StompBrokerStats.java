@@ -0,0 +1,19 @@
+package com.ufit.server.dto.response;
+
+public record StompBrokerStats(
+    int openSessions,
+    long slowConsumerDisconnects,
+    int inboundThreads,
+    int inboundActiveThreads,
+    int inboundQueueDepth,
+    long inboundOverflow,
+    int outboundThreads,
+    int outboundActiveThreads,
+    int outboundQueueDepth,
+    long outboundDropped,
+    long framesDelivered,
+    double avgFanOutMs,
+    double maxFanOutMs,
+    long sendTimeLimitMs,
+    int sendBufferSizeLimit
+) {}
@@ -0,0 +1,8 @@
+package com.ufit.server.dto.response;
+
+import java.util.List;
+
+public record TopicPageResponse(
+    List<TopicResponse> topics,
+    String nextCursor // null khi đã tới trang cuối
+) {}
@@ -9,6 +9,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_chat_entity_timestamp_id", columnList = "timestamp, id"),
+    @Index(name = "idx_chat_entity_sender_timestamp_id", columnList = "sender, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
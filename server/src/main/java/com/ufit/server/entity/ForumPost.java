@@ -2,12 +2,14 @@
 package com.ufit.server.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "forum_posts")
+@DynamicUpdate // upvotes/downvotes được cộng dồn nền, tránh ghi đè bằng giá trị cũ
 public class ForumPost {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -6,7 +6,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "forum_topics")
+@Table(name = "forum_topics", indexes = {
+    @Index(name = "idx_forum_topics_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_forum_topics_category_created_id", columnList = "category_id, created_at, id")
+})
 public class ForumTopic {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
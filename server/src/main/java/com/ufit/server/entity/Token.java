@@ -1,5 +1,91 @@
 package com.ufit.server.entity;
 
-public class Token {
-    
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Token đặt lại mật khẩu; chỉ lưu SHA-256 của token, không lưu token gốc
+@Entity
+@Table(name = "password_reset_tokens", indexes = {
+    @Index(name = "idx_password_reset_tokens_expires_at", columnList = "expires_at")
+})
+public class Token implements Persistable<String> {
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+
+    // Khóa do ứng dụng gán: báo cho save() biết đây là dòng mới để persist
+    // thẳng, thay vì merge kèm một SELECT theo khóa
+    @Transient
+    private boolean isNew = true;
+
+    public Token() {}
+
+    public Token(String tokenHash, String email, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.email = email;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isExpired() {
+        return !LocalDateTime.now().isBefore(expiresAt);
+    }
 }
@@ -1,6 +1,7 @@
 package com.ufit.server.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
@@ -9,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "users")
+@DynamicUpdate // karma được cập nhật nền, tránh ghi đè bằng giá trị cũ
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +52,17 @@ public class User {
     @Column(columnDefinition = "integer default 0")
     private int karma = 0;
 
+    // Tổng vote nhận được trên các post của user, cộng dồn theo từng vote để tính karma
+    @Column(columnDefinition = "integer default 0")
+    private int upvotesReceived = 0;
+
+    @Column(columnDefinition = "integer default 0")
+    private int downvotesReceived = 0;
+
+    // Tăng khi đổi mật khẩu; refresh token mang phiên bản cũ không còn dùng được
+    @Column(columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+
     public Double getBmi() {
         if (height != null && weight != null && height > 0) {
             double h = height / 100.0;
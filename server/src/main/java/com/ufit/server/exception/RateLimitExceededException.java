@@ -0,0 +1,21 @@
+package com.ufit.server.exception;
+
+/**
+ * Thrown when a request is refused by a rate or concurrency limit.
+ * Mapped to 429 Too Many Requests with a Retry-After header.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
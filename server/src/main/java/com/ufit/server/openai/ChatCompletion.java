@@ -0,0 +1,36 @@
+package com.ufit.server.openai;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * The parts of an OpenAI chat completion (or streamed completion chunk) the
+ * app reads. Everything else in the payload (ids, usage, logprobs...) is
+ * skipped by the decoder.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatCompletion(List<Choice> choices) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Message message, Message delta) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Message(String role, String content) {}
+
+    /** Content of the first choice's message, or null */
+    public String firstContent() {
+        Choice choice = firstChoice();
+        return choice == null || choice.message() == null ? null : choice.message().content();
+    }
+
+    /** Content of the first choice's delta in a streamed chunk, or null */
+    public String firstDeltaContent() {
+        Choice choice = firstChoice();
+        return choice == null || choice.delta() == null ? null : choice.delta().content();
+    }
+
+    private Choice firstChoice() {
+        return choices == null || choices.isEmpty() ? null : choices.get(0);
+    }
+}
@@ -0,0 +1,192 @@
+package com.ufit.server.openai;
+
+import com.ufit.server.exception.RateLimitExceededException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking concurrency cap with per-user fair queuing.
+ *
+ * Requests beyond {@code maxConcurrent} wait in one queue per user; free
+ * slots are handed out round-robin across users, so one user with many
+ * queued requests cannot starve everyone else. Waiting is bounded both in
+ * length ({@code maxQueued}) and in time ({@code queueTimeout}).
+ */
+public class FairConcurrencyLimiter {
+
+    /** A held slot; releasing it more than once is harmless. */
+    public final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                releaseSlot();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final String user;
+        final MonoSink<Permit> sink;
+        boolean done;
+
+        Waiter(String user, MonoSink<Permit> sink) {
+            this.user = user;
+            this.sink = sink;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final Map<String, ArrayDeque<Waiter>> queues = new HashMap<>();
+    // Thứ tự vòng tròn của các user đang có request chờ
+    private final ArrayDeque<String> rotation = new ArrayDeque<>();
+    private int active;
+    private int queued;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder acquired = new LongAdder();
+
+    public FairConcurrencyLimiter(int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        if (maxConcurrent <= 0 || maxQueued < 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive and maxQueued non-negative");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * Wait for a slot. Fails with {@link RateLimitExceededException} when the
+     * queue is full or the wait exceeds the queue timeout.
+     */
+    public Mono<Permit> acquire(String user) {
+        return Mono.<Permit>create(sink -> {
+                long queuedAt = System.nanoTime();
+                Waiter waiter = new Waiter(user, sink);
+                // Đăng ký trước khi vào hàng đợi để không lỡ một lần hủy
+                sink.onCancel(() -> cancel(waiter));
+                sink.onDispose(() -> waitNanos.add(System.nanoTime() - queuedAt));
+                synchronized (this) {
+                    if (waiter.done) {
+                        return;
+                    }
+                    if (active < maxConcurrent && queued == 0) {
+                        active++;
+                        waiter.done = true;
+                    } else if (queued >= maxQueued) {
+                        rejected.increment();
+                        waiter.done = true;
+                        sink.error(new RateLimitExceededException("AI request queue is full", 1));
+                        return;
+                    } else {
+                        queues.computeIfAbsent(user, u -> {
+                            rotation.addLast(u);
+                            return new ArrayDeque<>();
+                        }).addLast(waiter);
+                        queued++;
+                        return;
+                    }
+                }
+                acquired.increment();
+                sink.success(new Permit());
+            })
+            .timeout(queueTimeout)
+            .onErrorMap(TimeoutException.class, e -> {
+                timedOut.increment();
+                return new RateLimitExceededException("Timed out waiting for an AI request slot",
+                    TokenBucket.retryAfterSeconds(queueTimeout.toNanos()));
+            });
+    }
+
+    public synchronized int getActive() {
+        return active;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public double getAvgWaitMs() {
+        long count = acquired.sum() + timedOut.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    private void cancel(Waiter waiter) {
+        boolean granted;
+        synchronized (this) {
+            granted = waiter.done;
+            if (!granted) {
+                waiter.done = true;
+                ArrayDeque<Waiter> queue = queues.get(waiter.user);
+                if (queue != null && queue.remove(waiter)) {
+                    queued--;
+                    if (queue.isEmpty()) {
+                        queues.remove(waiter.user);
+                        rotation.remove(waiter.user);
+                    }
+                }
+            }
+        }
+        // Slot đã được giao nhưng subscriber hủy trước khi nhận: trả lại
+        if (granted) {
+            releaseSlot();
+        }
+    }
+
+    private void releaseSlot() {
+        Waiter next = null;
+        synchronized (this) {
+            while (next == null && !rotation.isEmpty()) {
+                String user = rotation.pollFirst();
+                ArrayDeque<Waiter> queue = queues.get(user);
+                Waiter candidate = queue.pollFirst();
+                queued--;
+                if (queue.isEmpty()) {
+                    queues.remove(user);
+                } else {
+                    rotation.addLast(user);
+                }
+                if (!candidate.done) {
+                    candidate.done = true;
+                    next = candidate;
+                }
+            }
+            if (next == null) {
+                active--;
+            }
+        }
+        if (next != null) {
+            acquired.increment();
+            // Nếu subscriber vừa hủy, success bị bỏ qua và onCancel sẽ trả slot lại
+            next.sink.success(new Permit());
+        }
+    }
+}
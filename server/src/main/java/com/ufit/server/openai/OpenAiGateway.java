@@ -0,0 +1,218 @@
+package com.ufit.server.openai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ufit.server.config.HttpClientFactory;
+import com.ufit.server.dto.response.OpenAiGatewayStats;
+import com.ufit.server.exception.RateLimitExceededException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single way out to the OpenAI chat completions API.
+ *
+ * Every call passes a per-user token bucket. Identical in-flight completion
+ * requests are then coalesced onto one upstream call; only that call takes a
+ * token from the global bucket and a slot from the fair concurrency
+ * limiter. Refusals surface as {@link RateLimitExceededException}, and so do
+ * 429 responses from OpenAI itself.
+ */
+@Component
+public class OpenAiGateway {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_CHUNK =
+        new ParameterizedTypeReference<>() {};
+
+    private final WebClient client;
+    private final ObjectWriter keyWriter;
+    private final TokenBucket globalBucket;
+    private final double userCapacity;
+    private final double userRefillPerSecond;
+    private final Map<String, TokenBucket> userBuckets;
+    private final FairConcurrencyLimiter limiter;
+    private final Map<String, Mono<ChatCompletion>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder userRejected = new LongAdder();
+    private final LongAdder globalRejected = new LongAdder();
+    private final LongAdder upstream429 = new LongAdder();
+
+    public OpenAiGateway(@Value("${openai.api.key}") String apiKey,
+                         @Value("${openai.api.url:https://api.openai.com/v1/chat/completions}") String apiUrl,
+                         HttpClientFactory httpClientFactory,
+                         ObjectMapper objectMapper,
+                         @Value("${openai.gateway.global.capacity:60}") double globalCapacity,
+                         @Value("${openai.gateway.global.refill-per-second:1}") double globalRefillPerSecond,
+                         @Value("${openai.gateway.user.capacity:10}") double userCapacity,
+                         @Value("${openai.gateway.user.refill-per-second:0.2}") double userRefillPerSecond,
+                         @Value("${openai.gateway.user.max-tracked:10000}") int maxTrackedUsers,
+                         @Value("${openai.gateway.max-concurrent:8}") int maxConcurrent,
+                         @Value("${openai.gateway.max-queued:100}") int maxQueued,
+                         @Value("${openai.gateway.queue-timeout-ms:10000}") long queueTimeoutMs) {
+        this.client = httpClientFactory.builder("openai")
+          .baseUrl(apiUrl)
+          .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+          .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+          .build();
+        // Sắp xếp key để hai Map cùng nội dung luôn ra cùng một khóa
+        this.keyWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.globalBucket = new TokenBucket(globalCapacity, globalRefillPerSecond);
+        this.userCapacity = userCapacity;
+        this.userRefillPerSecond = userRefillPerSecond;
+        // LRU theo user: user lâu không dùng bị bỏ, bucket mới lại đầy
+        this.userBuckets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxTrackedUsers;
+            }
+        });
+        this.limiter = new FairConcurrencyLimiter(maxConcurrent, maxQueued, Duration.ofMillis(queueTimeoutMs));
+    }
+
+    /**
+     * POST a chat completion request and return the decoded response.
+     * Concurrent calls with the same body share one upstream request.
+     */
+    public Mono<ChatCompletion> complete(String username, Map<String, Object> body) {
+        return Mono.defer(() -> {
+            requests.increment();
+            checkUserLimit(username);
+            String key = coalescingKey(body);
+            boolean[] leader = {false};
+            Mono<ChatCompletion> shared = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return limited(username, client.post()
+                      .bodyValue(body)
+                      .retrieve()
+                      .bodyToMono(ChatCompletion.class))
+                    .doFinally(signal -> inFlight.remove(k))
+                    .share();
+            });
+            if (!leader[0]) {
+                coalesced.increment();
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * POST a streaming chat completion request and relay the raw SSE chunks.
+     * The concurrency slot is held until the stream ends or is cancelled.
+     */
+    public Flux<ServerSentEvent<String>> stream(String username, Map<String, Object> body) {
+        return Flux.defer(() -> {
+            requests.increment();
+            checkUserLimit(username);
+            return Flux.usingWhen(acquireUpstream(username),
+                permit -> client.post()
+                  .accept(MediaType.TEXT_EVENT_STREAM)
+                  .bodyValue(body)
+                  .retrieve()
+                  .bodyToFlux(SSE_CHUNK)
+                  .onErrorMap(WebClientResponseException.TooManyRequests.class, this::upstreamLimited)
+                  .onErrorMap(OpenAiGateway::isReadTimeout, OpenAiGateway::upstreamTimeout),
+                permit -> Mono.fromRunnable(permit::release),
+                (permit, error) -> Mono.fromRunnable(permit::release),
+                permit -> Mono.fromRunnable(permit::release));
+        });
+    }
+
+    public OpenAiGatewayStats stats() {
+        return new OpenAiGatewayStats(requests.sum(), coalesced.sum(), upstreamCalls.sum(), inFlight.size(),
+            limiter.getActive(), limiter.getQueued(), limiter.getMaxConcurrent(),
+            userRejected.sum(), globalRejected.sum(), limiter.getRejected(), limiter.getTimedOut(),
+            upstream429.sum(), Math.round(limiter.getAvgWaitMs() * 10) / 10.0,
+            Math.floor(globalBucket.available() * 10) / 10.0);
+    }
+
+    private <T> Mono<T> limited(String username, Mono<T> call) {
+        return Mono.usingWhen(acquireUpstream(username),
+            permit -> call.onErrorMap(WebClientResponseException.TooManyRequests.class, this::upstreamLimited)
+                .onErrorMap(OpenAiGateway::isReadTimeout, OpenAiGateway::upstreamTimeout),
+            permit -> Mono.fromRunnable(permit::release),
+            (permit, error) -> Mono.fromRunnable(permit::release),
+            permit -> Mono.fromRunnable(permit::release));
+    }
+
+    // Token toàn cục chỉ tính cho request thật sự đi ra ngoài, rồi mới xếp hàng chờ slot
+    private Mono<FairConcurrencyLimiter.Permit> acquireUpstream(String username) {
+        return Mono.defer(() -> {
+            long waitNanos = globalBucket.tryAcquire();
+            if (waitNanos > 0) {
+                globalRejected.increment();
+                return Mono.error(new RateLimitExceededException("AI service is busy, please retry shortly",
+                    TokenBucket.retryAfterSeconds(waitNanos)));
+            }
+            return limiter.acquire(username).doOnNext(permit -> upstreamCalls.increment());
+        });
+    }
+
+    private void checkUserLimit(String username) {
+        TokenBucket bucket = userBuckets.computeIfAbsent(username,
+            u -> new TokenBucket(userCapacity, userRefillPerSecond));
+        long waitNanos = bucket.tryAcquire();
+        if (waitNanos > 0) {
+            userRejected.increment();
+            throw new RateLimitExceededException("Too many chatbot requests, please slow down",
+                TokenBucket.retryAfterSeconds(waitNanos));
+        }
+    }
+
+    private RateLimitExceededException upstreamLimited(WebClientResponseException.TooManyRequests e) {
+        upstream429.increment();
+        long retryAfter = 1;
+        String header = e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (header != null) {
+            try {
+                retryAfter = Long.parseLong(header.trim());
+            } catch (NumberFormatException ignored) {
+                // Retry-After dạng ngày giờ: dùng mặc định
+            }
+        }
+        return new RateLimitExceededException("AI provider rate limit reached, please retry shortly", retryAfter);
+    }
+
+    // ReadTimeoutException của Netty (bọc trong WebClientRequestException) không có message
+    private static boolean isReadTimeout(Throwable e) {
+        return e instanceof ReadTimeoutException || e.getCause() instanceof ReadTimeoutException;
+    }
+
+    private static IllegalStateException upstreamTimeout(Throwable e) {
+        return new IllegalStateException("AI provider did not respond in time", e);
+    }
+
+    // Body giống hệt nhau (cùng model, cùng prompt) thì dùng chung một lần gọi
+    private String coalescingKey(Map<String, Object> body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(keyWriter.writeValueAsBytes(body));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body is not serializable", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
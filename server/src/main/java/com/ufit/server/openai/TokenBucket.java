@@ -0,0 +1,53 @@
+package com.ufit.server.openai;
+
+/**
+ * Classic token bucket: up to {@code capacity} tokens, refilled continuously
+ * at {@code refillPerSecond}. Each request takes one token.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be >= 1 and refillPerSecond positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1e9;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take one token.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one
+     *         becomes available
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    /**
+     * Whole seconds for a Retry-After header covering a wait returned by
+     * {@link #tryAcquire()}, rounded up and at least 1.
+     */
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    public synchronized double available() {
+        long now = System.nanoTime();
+        return Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+    }
+}
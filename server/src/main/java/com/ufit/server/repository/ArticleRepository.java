@@ -1,12 +1,29 @@
 package com.ufit.server.repository;
 import com.ufit.server.entity.Article;
+import com.ufit.server.repository.projection.ArticleSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
     List<Article> findByCategory(String category);
+    @Query("SELECT a.id AS id, a.href AS href, a.title AS title, a.category AS category, " +
+           "a.author AS author, a.imageUrl AS imageUrl, a.createdAt AS createdAt, " +
+           "SUBSTRING(a.content, 1, 200) AS excerpt FROM Article a ORDER BY a.id")
+    List<ArticleSummary> findAllSummaries();
+    @Query("SELECT a.id AS id, a.href AS href, a.title AS title, a.category AS category, " +
+           "a.author AS author, a.imageUrl AS imageUrl, a.createdAt AS createdAt, " +
+           "SUBSTRING(a.content, 1, 200) AS excerpt FROM Article a " +
+           "WHERE a.category = :category ORDER BY a.id")
+    List<ArticleSummary> findSummariesByCategory(@Param("category") String category);
     boolean existsByHref(String href);
+    @Query("SELECT a.href FROM Article a WHERE a.href IS NOT NULL")
+    List<String> findAllHrefs();
     List<Article> findTop5ByOrderByCreatedAtDesc();
     @Query("SELECT a.category, COUNT(a) FROM Article a GROUP BY a.category")
     List<Object[]> countByCategory();
@@ -14,4 +31,7 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     List<Article> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(String title, String content);
     @Query("SELECT DISTINCT a.category FROM Article a ORDER BY a.category")
     List<String> findDistinctCategories();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM Article a")
+    Stream<Article> streamAll();
 }
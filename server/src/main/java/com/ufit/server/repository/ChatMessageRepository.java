@@ -1,13 +1,53 @@
 package com.ufit.server.repository;
 
 import com.ufit.server.entity.ChatEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatEntity, Long> {
-    List<ChatEntity> findBySenderOrderByTimestampDesc(String sender);
-    List<ChatEntity> findAllByOrderByTimestampDesc();
-} 
\ No newline at end of file
+
+    // Keyset pagination theo (timestamp, id) giảm dần, giới hạn dưới bởi :from
+    @Query("SELECT c FROM ChatEntity c " +
+           "WHERE c.timestamp >= :from " +
+           "AND (c.timestamp < :timestamp OR (c.timestamp = :timestamp AND c.id < :id)) " +
+           "ORDER BY c.timestamp DESC, c.id DESC")
+    List<ChatEntity> findAllBefore(@Param("from") LocalDateTime from,
+                                   @Param("timestamp") LocalDateTime timestamp,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    @Query("SELECT c FROM ChatEntity c " +
+           "WHERE c.sender = :sender AND c.timestamp >= :from " +
+           "AND (c.timestamp < :timestamp OR (c.timestamp = :timestamp AND c.id < :id)) " +
+           "ORDER BY c.timestamp DESC, c.id DESC")
+    List<ChatEntity> findBySenderBefore(@Param("sender") String sender,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("timestamp") LocalDateTime timestamp,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    // Xuất theo thứ tự thời gian tăng dần, đọc dần từng phần thay vì nạp hết
+    // (MySQL cần useCursorFetch=true để tôn trọng fetch size, xem StreamingFetchConfig)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM ChatEntity c WHERE c.timestamp >= :from AND c.timestamp < :to " +
+           "ORDER BY c.timestamp, c.id")
+    Stream<ChatEntity> streamRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM ChatEntity c WHERE c.sender = :sender AND c.timestamp >= :from AND c.timestamp < :to " +
+           "ORDER BY c.timestamp, c.id")
+    Stream<ChatEntity> streamBySenderRange(@Param("sender") String sender,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+}
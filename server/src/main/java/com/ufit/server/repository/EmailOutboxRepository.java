@@ -0,0 +1,36 @@
+package com.ufit.server.repository;
+
+import com.ufit.server.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt, e.id")
+    List<EmailOutbox> findDue(EmailOutbox.Status status, LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt WHERE e.id IN :ids")
+    int updateStatus(Collection<Long> ids, EmailOutbox.Status status, LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = NULL " +
+           "WHERE e.id IN :ids")
+    int markSent(Collection<Long> ids, EmailOutbox.Status status, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :to WHERE e.status = :from")
+    int moveStatus(EmailOutbox.Status from, EmailOutbox.Status to);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :to WHERE e.status = :from AND e.nextAttemptAt <= :now")
+    int moveExpired(EmailOutbox.Status from, EmailOutbox.Status to, LocalDateTime now);
+}
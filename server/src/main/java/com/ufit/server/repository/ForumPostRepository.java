@@ -2,11 +2,16 @@
 package com.ufit.server.repository;
 
 import com.ufit.server.entity.ForumPost;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface ForumPostRepository extends JpaRepository<ForumPost, Long> {
+    // Fetch luôn topic và parentPost để cả thread chỉ tốn một câu SELECT
+    @EntityGraph(attributePaths = {"topic", "parentPost"})
     List<ForumPost> findByTopicId(Long topicId);
     List<ForumPost> findByTopicIdAndParentPostIsNull(Long topicId);
     List<ForumPost> findByParentPostId(Long parentPostId);
+    List<ForumPost> findByParentPostIdIn(Collection<Long> parentPostIds);
 }
@@ -3,9 +3,42 @@ package com.ufit.server.repository;
 
 import com.ufit.server.entity.ForumTopic;
 import com.ufit.server.entity.Category;
+import com.ufit.server.repository.projection.TopicSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ForumTopicRepository extends JpaRepository<ForumTopic, Long> {
     List<ForumTopic> findAllByCategory(Category category);
+
+    // Một câu lệnh duy nhất: topic + category + tổng vote (GROUP BY trên forum_votes), mới nhất trước
+    @Query("SELECT t.id AS id, t.title AS title, t.author AS author, t.createdAt AS createdAt, " +
+           "c.id AS categoryId, c.name AS categoryName, " +
+           "SUM(CASE WHEN v.isUpvote = true THEN 1 ELSE 0 END) AS upvotes, " +
+           "SUM(CASE WHEN v.isUpvote = false THEN 1 ELSE 0 END) AS downvotes " +
+           "FROM ForumTopic t LEFT JOIN t.category c " +
+           "LEFT JOIN ForumVote v ON v.post.id = t.id " +
+           "GROUP BY t.id, t.title, t.author, t.createdAt, c.id, c.name " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TopicSummary> findTopicSummaries(Pageable pageable);
+
+    // Keyset pagination theo (createdAt, id) giảm dần, dùng index thay vì OFFSET
+    @Query("SELECT t FROM ForumTopic t LEFT JOIN FETCH t.category " +
+           "WHERE t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<ForumTopic> findAllBefore(@Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    @Query("SELECT t FROM ForumTopic t LEFT JOIN FETCH t.category " +
+           "WHERE t.category = :category " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<ForumTopic> findAllByCategoryBefore(@Param("category") Category category,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
 }
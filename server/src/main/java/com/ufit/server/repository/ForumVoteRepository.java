@@ -1,18 +1,44 @@
 package com.ufit.server.repository;
 
 import com.ufit.server.entity.ForumVote;
+import com.ufit.server.repository.projection.AuthorVoteTotals;
+import com.ufit.server.repository.projection.PostVoteCount;
+import com.ufit.server.repository.projection.UserPostVote;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ForumVoteRepository extends JpaRepository<ForumVote, Long> {
     Optional<ForumVote> findByPostIdAndUsername(Long postId, String username);
     int countByPostIdAndIsUpvote(Long postId, boolean isUpvote);
-    
-    @Query("SELECT COUNT(v) FROM ForumVote v JOIN v.post p WHERE p.author = :author AND v.isUpvote = :isUpvote")
-    int countByPostAuthorAndIsUpvote(@Param("author") String author, @Param("isUpvote") boolean isUpvote);
+
+    // Dùng cho job đối soát karma: duyệt một lượt, không nạp hết vào bộ nhớ
+    // (cursor fetch của MySQL, xem StreamingFetchConfig, cho phép chạy UPDATE song song trên cùng kết nối)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.author AS author, " +
+           "SUM(CASE WHEN v.isUpvote = true THEN 1 ELSE 0 END) AS upvotes, " +
+           "SUM(CASE WHEN v.isUpvote = false THEN 1 ELSE 0 END) AS downvotes " +
+           "FROM ForumVote v JOIN v.post p GROUP BY p.author")
+    Stream<AuthorVoteTotals> streamAuthorVoteTotals();
+
+    @Query("SELECT v.post.id AS postId, " +
+           "SUM(CASE WHEN v.isUpvote = true THEN 1 ELSE 0 END) AS upvotes, " +
+           "SUM(CASE WHEN v.isUpvote = false THEN 1 ELSE 0 END) AS downvotes " +
+           "FROM ForumVote v WHERE v.post.id IN :postIds GROUP BY v.post.id")
+    List<PostVoteCount> countVotesByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Query("SELECT v.post.id AS postId, v.isUpvote AS upvote FROM ForumVote v " +
+           "WHERE v.username = :username AND v.post.id IN :postIds")
+    List<UserPostVote> findUserVotesByPostIds(@Param("username") String username,
+                                              @Param("postIds") Collection<Long> postIds);
 } 
\ No newline at end of file
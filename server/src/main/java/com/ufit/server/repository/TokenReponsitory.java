@@ -1 +1,25 @@
 package com.ufit.server.repository;
+
+import com.ufit.server.entity.Token;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenReponsitory extends JpaRepository<Token, String> {
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+
+    @Query("SELECT t.tokenHash FROM Token t ORDER BY t.expiresAt ASC")
+    List<String> findEarliestExpiring(Pageable pageable);
+}
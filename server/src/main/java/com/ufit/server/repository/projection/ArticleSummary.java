@@ -0,0 +1,18 @@
+package com.ufit.server.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of an article for list pages: every column except the
+ * TEXT body, which is replaced by a short excerpt cut in SQL.
+ */
+public interface ArticleSummary {
+    Long getId();
+    String getHref();
+    String getTitle();
+    String getCategory();
+    String getAuthor();
+    String getImageUrl();
+    LocalDateTime getCreatedAt();
+    String getExcerpt();
+}
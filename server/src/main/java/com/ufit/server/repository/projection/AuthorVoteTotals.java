@@ -0,0 +1,10 @@
+package com.ufit.server.repository.projection;
+
+/**
+ * Up/down votes received across all posts written by one author.
+ */
+public interface AuthorVoteTotals {
+    String getAuthor();
+    Long getUpvotes();
+    Long getDownvotes();
+}
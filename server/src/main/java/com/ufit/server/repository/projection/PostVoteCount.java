@@ -0,0 +1,11 @@
+package com.ufit.server.repository.projection;
+
+/**
+ * Up/down vote totals for one post, produced by a grouped aggregate over
+ * {@code forum_votes}.
+ */
+public interface PostVoteCount {
+    Long getPostId();
+    Long getUpvotes();
+    Long getDownvotes();
+}
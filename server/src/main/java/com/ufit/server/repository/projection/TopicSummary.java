@@ -0,0 +1,18 @@
+package com.ufit.server.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a forum topic for list pages: the topic columns, its
+ * category and the vote totals aggregated over {@code forum_votes}.
+ */
+public interface TopicSummary {
+    Long getId();
+    String getTitle();
+    String getAuthor();
+    LocalDateTime getCreatedAt();
+    Long getCategoryId();
+    String getCategoryName();
+    Long getUpvotes();
+    Long getDownvotes();
+}
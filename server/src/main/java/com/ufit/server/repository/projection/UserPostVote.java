@@ -0,0 +1,9 @@
+package com.ufit.server.repository.projection;
+
+/**
+ * The direction of one user's vote on one post.
+ */
+public interface UserPostVote {
+    Long getPostId();
+    boolean isUpvote();
+}
@@ -0,0 +1,164 @@
+package com.ufit.server.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over article titles and contents, ranked with
+ * BM25. Title terms count {@value #TITLE_WEIGHT} times so a hit in the title
+ * outranks the same hit buried in the body.
+ *
+ * Only ids and term statistics are kept here; the text itself stays in the
+ * database and is loaded for the page being displayed.
+ */
+public class ArticleSearchIndex {
+
+    /** One ranked hit. */
+    public record ScoredDoc(Long id, double score) {}
+
+    /** A page of ranked hits plus the total number of matching documents. */
+    public record Result(long total, List<ScoredDoc> hits) {}
+
+    static final int TITLE_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // term -> (articleId -> tần suất có trọng số)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    // articleId -> các term của bài, để xoá/cập nhật không phải quét toàn bộ index
+    private final Map<Long, String[]> docTerms = new HashMap<>();
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace one article.
+     */
+    public void put(Long id, String title, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : VietnameseAnalyzer.terms(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : VietnameseAnalyzer.terms(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(id, entry.getValue());
+            }
+            docTerms.put(id, frequencies.keySet().toArray(new String[0]));
+            docLengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docTerms.clear();
+            docLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docLengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank documents against {@code query} and return hits
+     * {@code [offset, offset + limit)}.
+     */
+    public Result search(String query, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(VietnameseAnalyzer.terms(query));
+        if (queryTerms.isEmpty()) {
+            return new Result(0, List.of());
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int docCount = docLengths.size();
+            if (docCount == 0) {
+                return new Result(0, List.of());
+            }
+            double avgLength = (double) totalLength / docCount;
+            for (String term : queryTerms) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                    int tf = doc.getValue();
+                    double norm = K1 * (1 - B + B * docLengths.get(doc.getKey()) / avgLength);
+                    scores.merge(doc.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ScoredDoc> ranked = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> ranked.add(new ScoredDoc(id, score)));
+        ranked.sort((a, b) -> {
+            int byScore = Double.compare(b.score(), a.score());
+            return byScore != 0 ? byScore : Long.compare(b.id(), a.id());
+        });
+
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(from + limit, ranked.size());
+        return new Result(ranked.size(), new ArrayList<>(ranked.subList(from, to)));
+    }
+
+    private void removeLocked(Long id) {
+        String[] terms = docTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        Integer length = docLengths.remove(id);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ufit.server.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds HTML-safe snippets with query terms wrapped in {@code <mark>}.
+ */
+public final class SnippetHighlighter {
+
+    private static final int SNIPPET_TOKENS = 30;
+
+    private SnippetHighlighter() {
+    }
+
+    /**
+     * Highlight every query term in the whole text.
+     */
+    public static String highlight(String text, Set<String> queryTerms) {
+        if (text == null) {
+            return null;
+        }
+        return render(text, VietnameseAnalyzer.tokenize(text), 0, text.length(), queryTerms);
+    }
+
+    /**
+     * Pick the window of about {@value #SNIPPET_TOKENS} words that covers the
+     * most distinct query terms and highlight the matches in it.
+     */
+    public static String snippet(String text, Set<String> queryTerms) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        List<VietnameseAnalyzer.Token> tokens = VietnameseAnalyzer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return "";
+        }
+
+        // Cửa sổ trượt: đếm số term khác nhau của truy vấn trong SNIPPET_TOKENS token liên tiếp
+        Map<String, Integer> inWindow = new HashMap<>();
+        int bestStart = 0;
+        int bestDistinct = -1;
+        for (int end = 0; end < tokens.size(); end++) {
+            String term = tokens.get(end).term();
+            if (queryTerms.contains(term)) {
+                inWindow.merge(term, 1, Integer::sum);
+            }
+            int start = end - SNIPPET_TOKENS + 1;
+            if (start > 0) {
+                String dropped = tokens.get(start - 1).term();
+                if (queryTerms.contains(dropped)) {
+                    inWindow.computeIfPresent(dropped, (k, v) -> v > 1 ? v - 1 : null);
+                }
+            }
+            if (inWindow.size() > bestDistinct) {
+                bestDistinct = inWindow.size();
+                bestStart = Math.max(start, 0);
+            }
+        }
+
+        int lastToken = Math.min(bestStart + SNIPPET_TOKENS, tokens.size()) - 1;
+        int from = tokens.get(bestStart).start();
+        int to = tokens.get(lastToken).end();
+        StringBuilder sb = new StringBuilder();
+        if (bestStart > 0) {
+            sb.append("… ");
+        }
+        sb.append(render(text, tokens, from, to, queryTerms));
+        if (lastToken < tokens.size() - 1) {
+            sb.append(" …");
+        }
+        return sb.toString();
+    }
+
+    private static String render(String text, List<VietnameseAnalyzer.Token> tokens,
+                                 int from, int to, Set<String> queryTerms) {
+        StringBuilder sb = new StringBuilder(to - from + 32);
+        int cursor = from;
+        for (VietnameseAnalyzer.Token token : tokens) {
+            if (token.start() < from || token.end() > to || !queryTerms.contains(token.term())) {
+                continue;
+            }
+            escape(text, cursor, token.start(), sb);
+            sb.append("<mark>");
+            escape(text, token.start(), token.end(), sb);
+            sb.append("</mark>");
+            cursor = token.end();
+        }
+        escape(text, cursor, to, sb);
+        return sb.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder sb) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
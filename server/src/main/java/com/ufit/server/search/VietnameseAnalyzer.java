@@ -0,0 +1,113 @@
+package com.ufit.server.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tokenizer for Vietnamese (and plain Latin) text.
+ *
+ * Text is lower-cased and folded to ASCII one character at a time ("Sức khỏe"
+ * becomes "suc khoe", "đ" becomes "d"), so offsets in the folded text line up
+ * with the original and matches can be highlighted in place. Decomposed (NFD)
+ * input keeps its combining marks inside the token span, so "Sức" typed
+ * either way yields the same term. Vietnamese words
+ * are usually two syllables, so adjacent syllables are also emitted as
+ * bigram terms ("suc_khoe") to reward phrase matches.
+ */
+public final class VietnameseAnalyzer {
+
+    /** A term and where it sits in the analysed text. */
+    public record Token(String term, int start, int end) {}
+
+    private VietnameseAnalyzer() {
+    }
+
+    /**
+     * Fold a string to lower-case ASCII without changing its length.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        char[] out = new char[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            out[i] = foldChar(text.charAt(i));
+        }
+        return new String(out);
+    }
+
+    /**
+     * Single-syllable tokens with their character offsets in {@code text}.
+     */
+    public static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            // Dấu tổ hợp (NFD) thuộc về chữ đứng trước, không cắt từ
+            boolean wordChar = i < folded.length()
+                && (Character.isLetterOrDigit(c) || (start >= 0 && isMark(c)));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(new Token(stripMarks(folded, start, i), start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Index terms for {@code text}: every syllable followed by every adjacent
+     * syllable pair.
+     */
+    public static List<String> terms(String text) {
+        List<Token> tokens = tokenize(text);
+        List<String> terms = new ArrayList<>(tokens.size() * 2);
+        for (Token token : tokens) {
+            terms.add(token.term());
+        }
+        for (int i = 1; i < tokens.size(); i++) {
+            terms.add(bigram(tokens.get(i - 1).term(), tokens.get(i).term()));
+        }
+        return terms;
+    }
+
+    public static String bigram(String first, String second) {
+        return first + "_" + second;
+    }
+
+    private static boolean isMark(char c) {
+        return Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static String stripMarks(String folded, int start, int end) {
+        StringBuilder term = null;
+        for (int i = start; i < end; i++) {
+            char c = folded.charAt(i);
+            if (isMark(c)) {
+                if (term == null) {
+                    term = new StringBuilder(end - start).append(folded, start, i);
+                }
+            } else if (term != null) {
+                term.append(c);
+            }
+        }
+        return term != null ? term.toString() : folded.substring(start, end);
+    }
+
+    private static char foldChar(char c) {
+        if (c == 'đ' || c == 'Đ') {
+            return 'd';
+        }
+        if (c < 128) {
+            return Character.toLowerCase(c);
+        }
+        // Tách dấu (NFD) rồi giữ lại ký tự gốc
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        return decomposed.isEmpty() ? c : decomposed.substring(0, 1).toLowerCase(Locale.ROOT).charAt(0);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ufit.server.security.jwt;
+
+import java.time.Instant;
+
+/** A freshly signed token together with its expiry, so callers need not re-parse it */
+public record IssuedToken(String token, Instant expiresAt) {
+    public long expiresAtEpochSecond() {
+        return expiresAt.getEpochSecond();
+    }
+}
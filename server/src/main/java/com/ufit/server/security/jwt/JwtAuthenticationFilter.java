@@ -1,70 +1,5 @@
-// package com.ufit.server.security.jwt;
-
-// import io.jsonwebtoken.Claims;
-// import io.jsonwebtoken.Jwts;
-// import jakarta.servlet.FilterChain;
-// import jakarta.servlet.ServletException;
-// import jakarta.servlet.http.HttpServletRequest;
-// import jakarta.servlet.http.HttpServletResponse;
-// import org.slf4j.Logger;
-// import org.slf4j.LoggerFactory;
-// import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-// import org.springframework.security.core.GrantedAuthority;
-// import org.springframework.security.core.authority.SimpleGrantedAuthority;
-// import org.springframework.security.core.context.SecurityContextHolder;
-// import org.springframework.stereotype.Component;
-// import org.springframework.web.filter.OncePerRequestFilter;
-// import org.springframework.lang.NonNull;
-
-// import java.io.IOException;
-// import java.util.List;
-// import java.util.stream.Collectors;
-
-// @Component
-// public class JwtAuthenticationFilter extends OncePerRequestFilter {
-//     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-//     private final JwtService jwtService;
-
-//     public JwtAuthenticationFilter(JwtService jwtService) {
-//         this.jwtService = jwtService;
-//     }
-
-//     @Override
-//     protected void doFilterInternal(
-//             @NonNull HttpServletRequest req,
-//             @NonNull HttpServletResponse res,
-//             @NonNull FilterChain chain
-//     ) throws ServletException, IOException {
-//         String header = req.getHeader("Authorization");
-//         logger.debug("[JWT-DEBUG] Authorization header: {}", header);
-//         if (header != null && header.startsWith("Bearer ")) {
-//             String token = header.substring(7);
-//             if (jwtService.isTokenValid(token)) {
-//                 String username = jwtService.extractUsername(token);
-//                 Claims claims = Jwts.parserBuilder()
-//                     .setSigningKey(jwtService.getSigningKey())
-//                     .build()
-//                     .parseClaimsJws(token)
-//                     .getBody();
-//                 @SuppressWarnings("unchecked")
-//                 List<String> roles = claims.get("roles", List.class);
-//                 List<GrantedAuthority> auths = roles.stream()
-//                     .map(SimpleGrantedAuthority::new)
-//                     .collect(Collectors.toList());
-//                 UsernamePasswordAuthenticationToken auth =
-//                     new UsernamePasswordAuthenticationToken(username, null, auths);
-//                 SecurityContextHolder.getContext().setAuthentication(auth);
-//             }
-//         }
-//         chain.doFilter(req, res);
-//     }
-// }
-
-
 package com.ufit.server.security.jwt;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -72,16 +7,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -106,31 +38,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                boolean valid = jwtService.isTokenValid(token);
-                logger.debug("[JWT-DEBUG] Token valid? {}", valid);
-
-                if (valid) {
-                    String username = jwtService.extractUsername(token);
-                    logger.debug("[JWT-DEBUG] Username from token: {}", username);
-
-                    Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(jwtService.getSigningKey())
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
-
-                    @SuppressWarnings("unchecked")
-                    List<String> roles = claims.get("roles", List.class);
-                    logger.debug("[JWT-DEBUG] Roles from token: {}", roles);
+                // Một lần verify duy nhất, kết quả được cache theo digest của token
+                Optional<VerifiedToken> verified = jwtService.verify(token);
+                logger.debug("[JWT-DEBUG] Token valid? {}", verified.isPresent());
 
-                    List<GrantedAuthority> auths = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+                if (verified.isPresent()) {
+                    VerifiedToken jwt = verified.get();
+                    logger.debug("[JWT-DEBUG] Username from token: {}, roles: {}", jwt.username(), jwt.authorities());
 
                     UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(username, null, auths);
+                        new UsernamePasswordAuthenticationToken(jwt.username(), null, jwt.authorities());
                     SecurityContextHolder.getContext().setAuthentication(auth);
-                    logger.debug("[JWT-DEBUG] Authentication set for user: {}", username);
+                    logger.debug("[JWT-DEBUG] Authentication set for user: {}", jwt.username());
                 }
             } catch (Exception ex) {
                 logger.error("[JWT-DEBUG] Error processing token:", ex);
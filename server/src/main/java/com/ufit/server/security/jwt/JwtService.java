@@ -1,88 +1,183 @@
 package com.ufit.server.security.jwt;
 
 import com.ufit.server.entity.User;
-import com.ufit.server.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
-
-import com.ufit.server.entity.Role;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class JwtService {
 
+    public static final String TYPE_CLAIM = "typ";
+    public static final String VERSION_CLAIM = "ver";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration-minutes:60}") // Mặc định 60 phút (1 giờ)
     private long jwtExpirationMinutes;
 
-    private final UserRepository userRepository;
+    @Value("${jwt.refresh-expiration-days:14}")
+    private long refreshExpirationDays;
+
+    @Value("${jwt.verify-cache.max-entries:10000}")
+    private int verifyCacheMaxEntries;
+
+    // Key và parser bất biến, dựng một lần thay vì mỗi lần parse
+    private SecretKey signingKey;
+    private JwtParser parser;
 
-    public JwtService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    // digest của token -> kết quả verify; đọc không khóa, dọn khi vượt giới hạn
+    private ConcurrentHashMap<String, VerifiedToken> verifiedTokens;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = new ConcurrentHashMap<>(256);
     }
 
-    public SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    /** Access token for API calls, carrying the user's role */
+    public IssuedToken issueAccessToken(User user) {
+        return issue(user, ACCESS_TOKEN, Instant.now().plus(jwtExpirationMinutes, ChronoUnit.MINUTES));
     }
 
-    public String generateToken(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    /** Long-lived token accepted only by /api/auth/refresh */
+    public IssuedToken issueRefreshToken(User user) {
+        return issue(user, REFRESH_TOKEN, Instant.now().plus(refreshExpirationDays, ChronoUnit.DAYS));
+    }
 
+    private IssuedToken issue(User user, String type, Instant expiry) {
+        // Lấy role trực tiếp từ User đã có, không query lại DB
         List<String> roles = List.of(user.getRole().name());
-
         Instant now = Instant.now();
-        Instant expiry = now.plus(jwtExpirationMinutes, ChronoUnit.MINUTES);
-
-        return Jwts.builder()
-            .setSubject(username)
+        String token = Jwts.builder()
+            .setSubject(user.getUsername())
             .claim("roles", roles)
+            .claim(TYPE_CLAIM, type)
+            .claim(VERSION_CLAIM, user.getTokenVersion())
             .setIssuedAt(Date.from(now))
             .setExpiration(Date.from(expiry))
-            .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+            .signWith(signingKey, SignatureAlgorithm.HS256)
             .compact();
+        // Claim exp được lưu theo giây
+        return new IssuedToken(token, expiry.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Verify an access token once and return its subject and authorities.
+     * Refresh tokens are rejected here.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        return verifyCached(token).filter(jwt -> ACCESS_TOKEN.equals(jwt.type()));
+    }
+
+    /** Verify a token presented to the refresh endpoint */
+    public Optional<VerifiedToken> verifyRefreshToken(String token) {
+        return verifyCached(token).filter(jwt -> REFRESH_TOKEN.equals(jwt.type()));
+    }
+
+    /**
+     * Results are cached by token digest until the token expires, so a
+     * repeated token skips signature checking and claim decoding. Lookups
+     * take no lock; when the cache grows past its limit, one caller drops
+     * expired entries and then arbitrary ones down to 90% of the limit.
+     */
+    private Optional<VerifiedToken> verifyCached(String token) {
+        String key = digest(token);
+        Instant now = Instant.now();
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(key, cached);
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = toVerifiedToken(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        verifiedTokens.put(key, verified);
+        if (verifiedTokens.size() > verifyCacheMaxEntries) {
+            evict(now);
+        }
+        return Optional.of(verified);
     }
 
-    public long getExpirationTime(String token) {
-        Instant expiry = Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .getExpiration()
-            .toInstant();
-        return expiry.getEpochSecond();
+    int verifyCacheSize() {
+        return verifiedTokens.size();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .getSubject();
+    // Dọn theo lô xuống 90% giới hạn để không phải dọn lại ở mỗi lần put; chỉ một thread dọn
+    private void evict(Instant now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = verifyCacheMaxEntries - verifyCacheMaxEntries / 10;
+            verifiedTokens.values().removeIf(token -> token.isExpired(now));
+            Iterator<String> keys = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Token has no subject or expiration");
+        }
+        List<?> roles = claims.get("roles", List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of()
+            : roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        // Token cũ chưa có claim typ được coi là access token
+        String type = claims.get(TYPE_CLAIM, String.class);
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        return new VerifiedToken(claims.getSubject(), authorities,
+            type == null ? ACCESS_TOKEN : type, version == null ? 0 : version,
+            claims.getExpiration().toInstant());
     }
 
-    public boolean isTokenValid(String token) {
+    // Khóa cache là SHA-256 của token để không giữ bearer token nguyên bản trong bộ nhớ
+    private static String digest(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.ufit.server.security.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of a successful JWT verification: the subject, its authorities,
+ * the token type, the user's token version when it was issued and the
+ * token's own expiry, after which the entry must not be reused.
+ */
+public record VerifiedToken(
+    String username,
+    List<GrantedAuthority> authorities,
+    String type,
+    int tokenVersion,
+    Instant expiresAt
+) {
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
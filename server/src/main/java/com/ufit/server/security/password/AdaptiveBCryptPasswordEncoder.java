@@ -0,0 +1,93 @@
+package com.ufit.server.security.password;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt encoder whose work factor is calibrated at startup to the highest
+ * cost that still hashes within the target latency on this machine. Hashes
+ * stored with a lower cost are reported by {@link #upgradeEncoding(String)}
+ * so they can be rehashed on the next successful login; stronger hashes are
+ * never downgraded, so nodes calibrating to different costs do not keep
+ * rehashing the same account back and forth.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final int CALIBRATION_SAMPLES = 5;
+
+    private final int cost;
+    private final long calibratedMillis;
+    private final BCryptPasswordEncoder encoder;
+
+    public AdaptiveBCryptPasswordEncoder(long targetMillis, int minCost, int maxCost) {
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("BCrypt cost bounds must satisfy 4 <= min <= max <= 31");
+        }
+        // Làm nóng JIT trước khi đo
+        new BCryptPasswordEncoder(4).encode("warmup");
+
+        int chosen = minCost;
+        // Lấy mẫu nhanh nhất: các mẫu chậm là nhiễu do JIT và tranh chấp lúc khởi động
+        long millis = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            millis = Math.min(millis, measure(minCost));
+        }
+        // Mỗi bậc cost tăng gấp đôi thời gian băm
+        while (chosen < maxCost && millis * 2 <= targetMillis) {
+            chosen++;
+            millis *= 2;
+        }
+        this.cost = chosen;
+        this.calibratedMillis = millis;
+        this.encoder = new BCryptPasswordEncoder(chosen);
+        logger.info("BCrypt cost calibrated to {} (~{} ms per hash, target {} ms)", chosen, millis, targetMillis);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // Cost nằm trong chính chuỗi hash nên encoder nào cũng kiểm tra được
+        return encoder.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = costOf(encodedPassword);
+        return stored > 0 && stored < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public long getCalibratedMillis() {
+        return calibratedMillis;
+    }
+
+    private static long measure(int cost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(cost);
+        long started = System.nanoTime();
+        probe.encode("calibration-probe");
+        return Math.max(1, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Định dạng $2a$10$...: cost là hai chữ số sau tiền tố phiên bản
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ufit.server.security.password;
+
+import com.ufit.server.dto.response.PasswordHashingStats;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Small fixed pool reserved for password hashing, with a bounded queue.
+ * A login burst queues here instead of occupying servlet threads and every
+ * CPU core; once the queue is full new work fails fast with
+ * {@link RejectedExecutionException}.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final AdaptiveBCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder started = new LongAdder();
+
+    public PasswordHashingExecutor(AdaptiveBCryptPasswordEncoder encoder,
+                                   @Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity) {
+        this.encoder = encoder;
+        this.queueCapacity = queueCapacity;
+        // 0 = mặc định một nửa số core, để phần còn lại cho request thường
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Run the task on the hashing pool; the future fails if the queue is full */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitNanos.add(System.nanoTime() - queuedAt);
+                started.increment();
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public PasswordHashingStats stats() {
+        long count = started.sum();
+        double avgWaitMs = count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+        return new PasswordHashingStats(encoder.getCost(), encoder.getCalibratedMillis(),
+            executor.getMaximumPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+            queueCapacity, executor.getCompletedTaskCount(), rejected.sum(),
+            Math.round(avgWaitMs * 10) / 10.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
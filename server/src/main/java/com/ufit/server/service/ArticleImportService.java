@@ -0,0 +1,16 @@
+package com.ufit.server.service;
+
+import com.ufit.server.dto.response.ImportProgress;
+
+import java.io.IOException;
+
+public interface ArticleImportService {
+    /**
+     * Stream cleaned_output.json into the articles table, skipping hrefs that
+     * already exist. Only one import runs at a time.
+     */
+    ImportProgress importArticles() throws IOException;
+
+    /** Progress of the running import, or the result of the last one */
+    ImportProgress getProgress();
+}
@@ -0,0 +1,20 @@
+package com.ufit.server.service;
+
+import com.ufit.server.dto.response.ArticleSearchResponse;
+import com.ufit.server.entity.Article;
+
+import java.util.Collection;
+
+public interface ArticleSearchService {
+    /** Ranked (BM25) search over article titles and contents */
+    ArticleSearchResponse search(String query, int page, int size);
+
+    /** Add or refresh articles in the index, after the current transaction commits */
+    void index(Collection<Article> articles);
+
+    /** Drop every article from the index, after the current transaction commits */
+    void clear();
+
+    /** Rebuild the whole index from the database; returns the number of indexed articles */
+    int rebuild();
+}
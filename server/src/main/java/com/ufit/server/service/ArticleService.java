@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import com.ufit.server.entity.Article;
 import com.ufit.server.repository.ArticleRepository;
 import com.ufit.server.dto.ArticleDTO;
+import com.ufit.server.repository.projection.ArticleSummary;
 
 import java.io.IOException;
 import java.util.List;
@@ -18,6 +19,9 @@ public interface ArticleService {
     void loadArticlesFromJson() throws IOException;
     List<Article> getArticlesByCategory(String category);
     List<Article> getAllArticles();
+    List<ArticleSummary> getArticleSummaries();
+    List<ArticleSummary> getArticleSummariesByCategory(String category);
+    long countArticles();
     void deleteAllArticles();
     Optional<ArticleDTO> getArticleById(Long id);
     List<ArticleDTO> getLatestArticles();
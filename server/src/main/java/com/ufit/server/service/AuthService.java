@@ -6,11 +6,14 @@ import com.ufit.server.dto.request.GoogleAuthRequest;
 import com.ufit.server.dto.request.LoginRequest;
 import com.ufit.server.dto.request.RegisterRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthService {
     AuthResponse register(RegisterRequest request);
     // AuthResponse login(LoginRequest request);
     void sendResetToken(String email);
     void resetPassword(String token, String newPassword);
     JwtAuthResponse googleLogin(GoogleAuthRequest request);
-    JwtAuthResponse login(LoginRequest request);  
+    CompletableFuture<JwtAuthResponse> login(LoginRequest request);
+    JwtAuthResponse refresh(String refreshToken);
 }
@@ -3,12 +3,25 @@ package com.ufit.server.service;
 
 import com.ufit.server.dto.request.ChatBotRequest;
 import com.ufit.server.dto.request.WorkoutPlanDto;
+import com.ufit.server.dto.response.ChatCacheStats;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface ChatBotService {
     /** 1) trả về phản hồi text */
     Mono<String> ask(ChatBotRequest request);
 
+    /** 1b) phản hồi text dạng stream, từng đoạn nội dung theo thứ tự; transcript được lưu vào ChatLog khi xong */
+    Flux<String> askStream(ChatBotRequest request);
+
     /** 2) trả về kế hoạch workout dưới dạng DTO (preview) */
     Mono<WorkoutPlanDto> askForPlan(ChatBotRequest request);
+
+    /** Thống kê cache câu trả lời và cache kế hoạch */
+    List<ChatCacheStats> getCacheStats();
+
+    /** Xóa toàn bộ cache chatbot */
+    void clearCache();
 }
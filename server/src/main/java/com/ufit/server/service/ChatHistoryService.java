@@ -0,0 +1,15 @@
+package com.ufit.server.service;
+
+import com.ufit.server.dto.response.ChatHistoryPage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ChatHistoryService {
+    /** Một trang lịch sử chat, mới nhất trước; sender/from/to/cursor đều có thể null */
+    ChatHistoryPage getPage(String sender, LocalDateTime from, LocalDateTime to, String cursor, int size);
+
+    /** Ghi toàn bộ tin nhắn trong khoảng [from, to) dạng NDJSON, cũ nhất trước, không nạp hết vào bộ nhớ */
+    long exportNdjson(String sender, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+}
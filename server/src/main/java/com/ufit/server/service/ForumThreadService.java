@@ -0,0 +1,19 @@
+package com.ufit.server.service;
+
+import com.ufit.server.dto.response.PostResponse;
+
+import java.util.List;
+
+public interface ForumThreadService {
+    /**
+     * Load every post of a topic as a reply tree, with the caller's own vote
+     * on each post. {@code username} may be null for anonymous readers.
+     */
+    List<PostResponse> loadThread(Long topicId, String username);
+
+    /**
+     * Load one post with its replies, one query per reply level plus one for
+     * the caller's votes.
+     */
+    PostResponse loadPost(Long postId, String username);
+}
@@ -0,0 +1,16 @@
+package com.ufit.server.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Storage for password-reset tokens. Tokens are single use: {@link #consume}
+ * removes the token and returns its email only if it has not expired.
+ */
+public interface PasswordResetTokenStore {
+    void save(String token, String email, LocalDateTime expiresAt);
+    Optional<String> consume(String token);
+    /** Remove expired tokens, returning how many were dropped */
+    int sweepExpired();
+    long size();
+}
@@ -5,7 +5,24 @@ import com.ufit.server.entity.ForumVote;
 
 public interface VoteService {
     /**
-     * Process a vote on a post, updating vote counts and karma
+     * Process a vote on a post. Returns the stored vote, or null when the call
+     * toggled an existing vote off. Post counts and karma are flushed in batches.
      */
     ForumVote processVote(Long postId, String username, boolean isUpvote);
-} 
\ No newline at end of file
+
+    /**
+     * Upvotes of the post including votes not yet flushed to the database
+     */
+    int getUpvotes(ForumPost post);
+
+    /**
+     * Downvotes of the post including votes not yet flushed to the database
+     */
+    int getDownvotes(ForumPost post);
+
+    /**
+     * Rebuild every post's vote counts and every author's vote totals and
+     * karma from the stored votes. Returns the number of authors that have received votes.
+     */
+    int reconcileKarma();
+}
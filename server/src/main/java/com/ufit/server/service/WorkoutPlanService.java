@@ -4,13 +4,14 @@ package com.ufit.server.service;
 import com.ufit.server.dto.request.WorkoutPlanDto;
 import com.ufit.server.entity.WorkoutPlan;
 import com.ufit.server.dto.request.ChatBotRequest;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface WorkoutPlanService {
-    // preview vẫn reactive hoặc bạn có thể block() tuỳ thích
-    WorkoutPlanDto previewPlan(String username, ChatBotRequest req);
+    // preview reactive, không block thread servlet
+    Mono<WorkoutPlanDto> previewPlan(String username, ChatBotRequest req);
 
     // lưu plan
     WorkoutPlan createPlan(String username, WorkoutPlanDto dto);
@@ -0,0 +1,182 @@
+package com.ufit.server.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufit.server.dto.response.ImportProgress;
+import com.ufit.server.repository.ArticleRepository;
+import com.ufit.server.service.ArticleImportService;
+import com.ufit.server.service.ArticleSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ArticleImportServiceImpl implements ArticleImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleImportServiceImpl.class);
+
+    private static final String SOURCE = "cleaned_output.json";
+
+    private static final String INSERT_ARTICLE =
+        "INSERT INTO articles (href, title, content, category, author, image_url, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final ArticleRepository articleRepository;
+    private final ArticleSearchService articleSearchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile String status = "IDLE";
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    public ArticleImportServiceImpl(ObjectMapper objectMapper,
+                                    ArticleRepository articleRepository,
+                                    ArticleSearchService articleSearchService,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${articles.import.batch-size:500}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.articleRepository = articleRepository;
+        this.articleSearchService = articleSearchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportProgress importArticles() throws IOException {
+        return importArticles(new ClassPathResource(SOURCE));
+    }
+
+    ImportProgress importArticles(Resource source) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An article import is already running");
+        }
+        processed.set(0);
+        inserted.set(0);
+        skipped.set(0);
+        error = null;
+        finishedAt = null;
+        startedAt = LocalDateTime.now();
+        startedNanos = System.nanoTime();
+        status = "RUNNING";
+        try {
+            // Nạp tập href đã có một lần, thay vì existsByHref cho từng bài
+            Set<String> knownHrefs = new HashSet<>(articleRepository.findAllHrefs());
+            logger.info("Starting article import, {} hrefs already in database", knownHrefs.size());
+
+            try (InputStream in = source.getInputStream();
+                 JsonParser parser = objectMapper.getFactory().createParser(in)) {
+                streamArticles(parser, knownHrefs);
+            }
+
+            if (inserted.get() > 0) {
+                // Bản ghi được chèn bằng JDBC nên index tìm kiếm phải dựng lại
+                articleSearchService.rebuild();
+            }
+            status = "COMPLETED";
+        } catch (IOException | RuntimeException e) {
+            status = "FAILED";
+            error = e.getMessage();
+            throw e;
+        } finally {
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            logger.info("Article import {}: {}", status, getProgress());
+        }
+        return getProgress();
+    }
+
+    @Override
+    public ImportProgress getProgress() {
+        long elapsedNanos = startedAt == null ? 0
+            : (running.get() ? System.nanoTime() : finishedNanos) - startedNanos;
+        long elapsedMs = elapsedNanos / 1_000_000;
+        double rate = elapsedNanos > 0 ? processed.get() * 1e9 / elapsedNanos : 0;
+        return new ImportProgress(status, processed.get(), inserted.get(), skipped.get(),
+            startedAt, finishedAt, elapsedMs, Math.round(rate * 10) / 10.0, error);
+    }
+
+    private void streamArticles(JsonParser parser, Set<String> knownHrefs) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException(SOURCE + " must contain a JSON array of articles");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Object[] row = readArticle(parser, now);
+            processed.incrementAndGet();
+            String href = (String) row[0];
+            // add() == false: đã có trong DB hoặc lặp lại trong chính file
+            if (href == null || !knownHrefs.add(href)) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                writeBatch(batch);
+            }
+        }
+        writeBatch(batch);
+    }
+
+    private Object[] readArticle(JsonParser parser, Timestamp createdAt) throws IOException {
+        String href = null, title = null, content = null, category = null, author = null, imageUrl = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "href" -> href = parser.getText();
+                case "title" -> title = parser.getText();
+                case "content" -> content = parser.getText();
+                case "category" -> category = parser.getText();
+                case "author" -> author = parser.getText();
+                case "imageUrl" -> imageUrl = parser.getText();
+                default -> { }
+            }
+        }
+        return new Object[] { href, title, content, category, author, imageUrl, createdAt };
+    }
+
+    private void writeBatch(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_ARTICLE, batch));
+        inserted.addAndGet(batch.size());
+        logger.info("Imported {} articles so far ({} read)", inserted.get(), processed.get());
+        batch.clear();
+    }
+}
@@ -0,0 +1,171 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.dto.response.ArticleSearchHit;
+import com.ufit.server.dto.response.ArticleSearchResponse;
+import com.ufit.server.entity.Article;
+import com.ufit.server.repository.ArticleRepository;
+import com.ufit.server.search.ArticleSearchIndex;
+import com.ufit.server.search.SnippetHighlighter;
+import com.ufit.server.search.VietnameseAnalyzer;
+import com.ufit.server.service.ArticleSearchService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class ArticleSearchServiceImpl implements ArticleSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleSearchServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Rebuild dựng index mới rồi mới thay vào, nên search không thấy index rỗng
+    private volatile ArticleSearchIndex index = new ArticleSearchIndex();
+    // Index đang được dựng lại; thay đổi trong lúc đó được ghi vào cả hai
+    private ArticleSearchIndex building;
+    private final Object swapLock = new Object();
+    private final ArticleRepository articleRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ArticleSearchServiceImpl(ArticleRepository articleRepository,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager) {
+        this.articleRepository = articleRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public ArticleSearchResponse search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(page, 0);
+        ArticleSearchIndex.Result result = index.search(query, pageNumber * pageSize, pageSize);
+
+        // Chỉ nạp nội dung của các bài trong trang hiện tại để tạo snippet
+        List<Long> ids = result.hits().stream().map(ArticleSearchIndex.ScoredDoc::id).collect(Collectors.toList());
+        Map<Long, Article> articles = articleRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Article::getId, Function.identity()));
+
+        Set<String> queryTerms = VietnameseAnalyzer.tokenize(query).stream()
+            .map(VietnameseAnalyzer.Token::term)
+            .collect(Collectors.toSet());
+
+        List<ArticleSearchHit> hits = new ArrayList<>(ids.size());
+        for (ArticleSearchIndex.ScoredDoc doc : result.hits()) {
+            Article article = articles.get(doc.id());
+            if (article == null) {
+                continue; // đã bị xoá sau khi index
+            }
+            hits.add(new ArticleSearchHit(
+                article.getId(),
+                article.getTitle(),
+                article.getCategory(),
+                article.getImageUrl(),
+                article.getCreatedAt(),
+                doc.score(),
+                SnippetHighlighter.highlight(article.getTitle(), queryTerms),
+                SnippetHighlighter.snippet(article.getContent(), queryTerms)
+            ));
+        }
+        return new ArticleSearchResponse(query, result.total(), pageNumber, pageSize, hits);
+    }
+
+    @Override
+    public void index(Collection<Article> articles) {
+        List<Article> snapshot = new ArrayList<>(articles);
+        afterCommit(() -> {
+            synchronized (swapLock) {
+                for (Article a : snapshot) {
+                    index.put(a.getId(), a.getTitle(), a.getContent());
+                    if (building != null) {
+                        building.put(a.getId(), a.getTitle(), a.getContent());
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void clear() {
+        afterCommit(() -> {
+            synchronized (swapLock) {
+                index.clear();
+                if (building != null) {
+                    building.clear();
+                }
+            }
+        });
+    }
+
+    @Override
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        ArticleSearchIndex fresh = new ArticleSearchIndex();
+        synchronized (swapLock) {
+            building = fresh;
+        }
+        Integer count;
+        try {
+            count = readOnlyTransaction.execute(status -> {
+                int indexed = 0;
+                try (Stream<Article> articles = articleRepository.streamAll()) {
+                    for (Article article : (Iterable<Article>) articles::iterator) {
+                        fresh.put(article.getId(), article.getTitle(), article.getContent());
+                        // Không giữ các entity đã index trong persistence context
+                        entityManager.detach(article);
+                        indexed++;
+                    }
+                }
+                return indexed;
+            });
+            synchronized (swapLock) {
+                index = fresh;
+            }
+        } finally {
+            // Lỗi giữa chừng thì giữ nguyên index cũ
+            synchronized (swapLock) {
+                if (building == fresh) {
+                    building = null;
+                }
+            }
+        }
+        logger.info("Indexed {} articles for search in {} ms", count, System.currentTimeMillis() - started);
+        return count != null ? count : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.ufit.server.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ufit.server.dto.ArticleDTO;
 import com.ufit.server.entity.Article;
 import com.ufit.server.repository.ArticleRepository;
+import com.ufit.server.repository.projection.ArticleSummary;
+import com.ufit.server.service.ArticleImportService;
+import com.ufit.server.service.ArticleSearchService;
 import com.ufit.server.service.ArticleService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,38 +28,15 @@ public class ArticleServiceImpl implements ArticleService {
     private ArticleRepository articleRepository;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ArticleImportService articleImportService;
+
+    @Autowired
+    private ArticleSearchService articleSearchService;
 
     @Override
-    @Transactional
     public void loadArticlesFromJson() throws IOException {
-        ClassPathResource resource = new ClassPathResource("cleaned_output.json");
-        ObjectMapper mapper = new ObjectMapper();
-        List<Map<String, Object>> articleData = mapper.readValue(
-                resource.getInputStream(),
-                new TypeReference<List<Map<String, Object>>>() {}
-        );
-        
-        System.out.println("Found " + articleData.size() + " articles in JSON file");
-        
-        int savedCount = 0;
-        for (Map<String, Object> data : articleData) {
-            String href = (String) data.get("href");
-            if (!articleRepository.existsByHref(href)) {
-                Article article = new Article();
-                article.setHref(href);
-                article.setTitle((String) data.get("title"));
-                article.setContent((String) data.get("content"));
-                article.setCategory((String) data.get("category"));
-                article.setAuthor((String) data.get("author"));
-                article.setImageUrl((String) data.get("imageUrl"));
-                
-                articleRepository.save(article);
-                savedCount++;
-            }
-        }
-        
-        System.out.println("Saved " + savedCount + " new articles to database");
+        // Đọc theo luồng và ghi theo lô, xem ArticleImportServiceImpl
+        articleImportService.importArticles();
     }
 
     @Override
@@ -71,11 +48,27 @@ public class ArticleServiceImpl implements ArticleService {
     public List<Article> getAllArticles() {
         return articleRepository.findAll();
     }
+
+    @Override
+    public List<ArticleSummary> getArticleSummaries() {
+        return articleRepository.findAllSummaries();
+    }
+
+    @Override
+    public List<ArticleSummary> getArticleSummariesByCategory(String category) {
+        return articleRepository.findSummariesByCategory(category);
+    }
+
+    @Override
+    public long countArticles() {
+        return articleRepository.count();
+    }
     
     @Override
     @Transactional
     public void deleteAllArticles() {
         articleRepository.deleteAll();
+        articleSearchService.clear();
         System.out.println("✅ All articles have been deleted from the database.");
     }
 
@@ -174,7 +167,7 @@ public class ArticleServiceImpl implements ArticleService {
         sampleArticles.add(recipeArticle);
         
         // Lưu danh sách bài viết vào database
-        articleRepository.saveAll(sampleArticles);
+        articleSearchService.index(articleRepository.saveAll(sampleArticles));
     }
     
     private ArticleDTO convertToDTO(Article article) {
@@ -6,19 +6,23 @@ import com.ufit.server.dto.response.JwtAuthResponse;
 import com.ufit.server.entity.User;
 import com.ufit.server.entity.Role;
 import com.ufit.server.repository.UserRepository;
+import com.ufit.server.security.jwt.IssuedToken;
 import com.ufit.server.security.jwt.JwtService;
+import com.ufit.server.security.jwt.VerifiedToken;
+import com.ufit.server.security.password.PasswordHashingExecutor;
 import com.ufit.server.service.AuthService;
 import com.ufit.server.service.EmailService;
+import com.ufit.server.service.PasswordResetTokenStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Transactional
@@ -27,18 +31,8 @@ public class AuthServiceImpl implements AuthService {
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private EmailService emailService;
     @Autowired private JwtService jwtService;
-
-    private static class TokenInfo {
-        private final String email;
-        private final LocalDateTime expiry;
-        public TokenInfo(String email, LocalDateTime expiry) {
-            this.email = email;
-            this.expiry = expiry;
-        }
-        public String getEmail() { return email; }
-        public boolean isExpired() { return LocalDateTime.now().isAfter(expiry); }
-    }
-    private final Map<String, TokenInfo> tokenStorage = new HashMap<>();
+    @Autowired private PasswordHashingExecutor passwordHashingExecutor;
+    @Autowired private PasswordResetTokenStore resetTokenStore;
 
     @Override
     public AuthResponse register(RegisterRequest request) {
@@ -59,7 +53,13 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    public JwtAuthResponse login(LoginRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<JwtAuthResponse> login(LoginRequest request) {
+        // BCrypt chạy trên pool riêng, thread servlet được trả về ngay
+        return passwordHashingExecutor.submit(() -> authenticate(request));
+    }
+
+    private JwtAuthResponse authenticate(LoginRequest request) {
         User user = userRepository.findByEmail(request.email())
             .orElseThrow(() -> new IllegalArgumentException("Invalid email or password"));
         if (!passwordEncoder.matches(request.password(), user.getPassword())) {
@@ -68,17 +68,29 @@ public class AuthServiceImpl implements AuthService {
         if (!user.isActive()) {
             throw new IllegalArgumentException("Account is not active");
         }
-        String token = jwtService.generateToken(user.getUsername());
-        long expiresAt = jwtService.getExpirationTime(token);
-        return new JwtAuthResponse(
-            user.getId(),
-            user.getUsername(),
-            user.getEmail(),
-            token,
-            user.getRole().name().replace("ROLE_", ""),
-            expiresAt,
-            "Login successful"
-        );
+        // Hash lưu với cost khác cost đã hiệu chỉnh: băm lại khi còn giữ mật khẩu gốc
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            userRepository.updatePassword(user.getId(), passwordEncoder.encode(request.password()));
+        }
+        return issueTokens(user, "Login successful");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public JwtAuthResponse refresh(String refreshToken) {
+        VerifiedToken verified = jwtService.verifyRefreshToken(refreshToken)
+            .orElseThrow(() -> new IllegalArgumentException("Refresh token is invalid or expired"));
+        // Đọc lại user để lấy role hiện tại và chặn tài khoản đã bị khóa, không cần BCrypt
+        User user = userRepository.findByUsername(verified.username())
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!user.isActive()) {
+            throw new IllegalArgumentException("Account is not active");
+        }
+        // Mật khẩu đã đổi sau khi token được cấp: token cũ bị thu hồi
+        if (verified.tokenVersion() != user.getTokenVersion()) {
+            throw new IllegalArgumentException("Refresh token is invalid or expired");
+        }
+        return issueTokens(user, "Token refreshed");
     }
 
     @Override
@@ -87,23 +99,20 @@ public class AuthServiceImpl implements AuthService {
             .orElseThrow(() -> new IllegalArgumentException("Email not found"));
         String token = UUID.randomUUID().toString();
         LocalDateTime expiry = LocalDateTime.now().plus(24, ChronoUnit.HOURS);
-        tokenStorage.put(token, new TokenInfo(user.getEmail(), expiry));
+        resetTokenStore.save(token, user.getEmail(), expiry);
         String link = "http://your-domain.com/reset-password?token=" + token;
         emailService.sendResetLink(email, link);
     }
 
     @Override
     public void resetPassword(String token, String newPassword) {
-        TokenInfo info = tokenStorage.get(token);
-        if (info == null || info.isExpired()) {
-            tokenStorage.remove(token);
-            throw new IllegalArgumentException("Token is invalid or expired");
-        }
-        User user = userRepository.findByEmail(info.getEmail())
+        String email = resetTokenStore.consume(token)
+            .orElseThrow(() -> new IllegalArgumentException("Token is invalid or expired"));
+        User user = userRepository.findByEmail(email)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
-        tokenStorage.remove(token);
     }
 
     @Override
@@ -118,16 +127,22 @@ public class AuthServiceImpl implements AuthService {
                 u.setRole(Role.ROLE_USER);
                 return userRepository.save(u);
             });
-        String token = jwtService.generateToken(user.getUsername());
-        long expiresAt = jwtService.getExpirationTime(token);
+        return issueTokens(user, "Google login successful");
+    }
+
+    private JwtAuthResponse issueTokens(User user, String message) {
+        IssuedToken access = jwtService.issueAccessToken(user);
+        IssuedToken refresh = jwtService.issueRefreshToken(user);
         return new JwtAuthResponse(
             user.getId(),
             user.getUsername(),
             user.getEmail(),
-            token,
+            access.token(),
             user.getRole().name().replace("ROLE_", ""),
-            expiresAt,
-            "Google login successful"
+            access.expiresAtEpochSecond(),
+            refresh.token(),
+            refresh.expiresAtEpochSecond(),
+            message
         );
     }
 }
\ No newline at end of file
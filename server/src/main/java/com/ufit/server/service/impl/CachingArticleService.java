@@ -0,0 +1,142 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.cache.EtagRegistry;
+import com.ufit.server.cache.VersionedLruCache;
+import com.ufit.server.dto.ArticleDTO;
+import com.ufit.server.dto.response.CacheStats;
+import com.ufit.server.entity.Article;
+import com.ufit.server.repository.projection.ArticleSummary;
+import com.ufit.server.service.ArticleService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link ArticleServiceImpl}. Articles only
+ * change through the import, sample and delete methods, which invalidate it.
+ */
+@Service
+@Primary
+public class CachingArticleService implements ArticleService {
+
+    private final ArticleServiceImpl delegate;
+    private final VersionedLruCache<String, Object> cache;
+    private final EtagRegistry etagRegistry;
+
+    public CachingArticleService(ArticleServiceImpl delegate,
+                                 EtagRegistry etagRegistry,
+                                 @Value("${articles.cache.max-entries:256}") int maxEntries,
+                                 @Value("${articles.cache.ttl-ms:600000}") long ttlMillis) {
+        this.delegate = delegate;
+        this.etagRegistry = etagRegistry;
+        this.cache = new VersionedLruCache<>("articles", maxEntries, ttlMillis);
+    }
+
+    @Override
+    public void loadArticlesFromJson() throws IOException {
+        try {
+            delegate.loadArticlesFromJson();
+        } finally {
+            // Import có thể đã ghi một phần trước khi lỗi
+            invalidate();
+        }
+    }
+
+    @Override
+    public void loadSampleArticles() {
+        try {
+            delegate.loadSampleArticles();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteAllArticles() {
+        try {
+            delegate.deleteAllArticles();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Article> getArticlesByCategory(String category) {
+        return (List<Article>) cache.get("category:" + category,
+            () -> readOnly(delegate.getArticlesByCategory(category)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ArticleSummary> getArticleSummariesByCategory(String category) {
+        return (List<ArticleSummary>) cache.get("summaries:" + category,
+            () -> readOnly(delegate.getArticleSummariesByCategory(category)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ArticleDTO> getLatestArticles() {
+        return (List<ArticleDTO>) cache.get("latest", () -> readOnly(delegate.getLatestArticles()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> getArticleCounts() {
+        return (Map<String, Long>) cache.get("counts",
+            () -> Collections.unmodifiableMap(new LinkedHashMap<>(delegate.getArticleCounts())));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getAllDistinctCategories() {
+        return (List<String>) cache.get("categories", () -> readOnly(delegate.getAllDistinctCategories()));
+    }
+
+    @Override
+    public List<Article> getAllArticles() {
+        return delegate.getAllArticles();
+    }
+
+    @Override
+    public List<ArticleSummary> getArticleSummaries() {
+        return delegate.getArticleSummaries();
+    }
+
+    @Override
+    public long countArticles() {
+        return delegate.countArticles();
+    }
+
+    @Override
+    public Optional<ArticleDTO> getArticleById(Long id) {
+        return delegate.getArticleById(id);
+    }
+
+    @Override
+    public List<ArticleDTO> searchArticles(String query) {
+        return delegate.searchArticles(query);
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private void invalidate() {
+        cache.invalidateAll();
+        etagRegistry.invalidate(EtagRegistry.ARTICLES_LATEST, EtagRegistry.ARTICLES_COUNTS);
+    }
+
+    // Giá trị trong cache được dùng chung giữa các request nên không cho sửa
+    private static <T> List<T> readOnly(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+}
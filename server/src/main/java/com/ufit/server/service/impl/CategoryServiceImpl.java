@@ -1,5 +1,6 @@
 package com.ufit.server.service.impl;
 
+import com.ufit.server.cache.EtagRegistry;
 import com.ufit.server.entity.Category;
 import com.ufit.server.repository.CategoryRepository;
 import com.ufit.server.service.CategoryService;
@@ -15,6 +16,9 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private EtagRegistry etagRegistry;
+
     @Override
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
@@ -28,7 +32,9 @@ public class CategoryServiceImpl implements CategoryService {
         }
         
         Category category = new Category(name);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        etagRegistry.invalidate(EtagRegistry.FORUM_CATEGORIES);
+        return saved;
     }
 
     @Override
@@ -45,6 +51,7 @@ public class CategoryServiceImpl implements CategoryService {
         
         category.setName(newName);
         categoryRepository.save(category);
+        etagRegistry.invalidate(EtagRegistry.FORUM_CATEGORIES);
     }
 
     @Override
@@ -57,5 +64,6 @@ public class CategoryServiceImpl implements CategoryService {
         // before deletion or implement a migration strategy
         
         categoryRepository.delete(category);
+        etagRegistry.invalidate(EtagRegistry.FORUM_CATEGORIES);
     }
 } 
\ No newline at end of file
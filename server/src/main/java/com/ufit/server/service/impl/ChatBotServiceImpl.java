@@ -1,40 +1,67 @@
 // server/src/main/java/com/ufit/server/service/impl/ChatBotServiceImpl.java
 package com.ufit.server.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufit.server.cache.ChatResponseCache;
 import com.ufit.server.dto.request.ChatBotRequest;
 import com.ufit.server.dto.request.WorkoutPlanDto;
-import com.ufit.server.entity.ChatMetric;
-import com.ufit.server.repository.ChatMetricRepository;
+import com.ufit.server.dto.response.ChatCacheStats;
+import com.ufit.server.openai.ChatCompletion;
+import com.ufit.server.openai.OpenAiGateway;
 import com.ufit.server.service.ChatBotService;
+import com.ufit.server.service.ChatLogService;
+import com.ufit.server.service.ChatMetricService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class ChatBotServiceImpl implements ChatBotService {
 
-    private final WebClient client;
-    
+    private static final Logger logger = LoggerFactory.getLogger(ChatBotServiceImpl.class);
+
+    private final OpenAiGateway gateway;
+    private final ChatResponseCache<String> answerCache;
+    private final ChatResponseCache<WorkoutPlanDto> planCache;
+    private final int heightBucketCm;
+    private final int weightBucketKg;
+
+    @Autowired
+    private ChatMetricService chatMetricService;
+
     @Autowired
-    private ChatMetricRepository chatMetricRepository;
-
-    public ChatBotServiceImpl(@Value("${openai.api.key}") String apiKey, WebClient.Builder webClientBuilder) {
-        this.client = webClientBuilder
-          .baseUrl("https://api.openai.com/v1/chat/completions")
-          .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-          .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-          .build();
+    private ChatLogService chatLogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public ChatBotServiceImpl(OpenAiGateway gateway,
+                              @Value("${chatbot.cache.max-entries:1000}") int cacheMaxEntries,
+                              @Value("${chatbot.cache.ttl-ms:3600000}") long cacheTtlMs,
+                              @Value("${chatbot.cache.similarity-threshold:0}") double similarityThreshold,
+                              @Value("${chatbot.cache.plan.max-entries:500}") int planCacheMaxEntries,
+                              @Value("${chatbot.cache.plan.ttl-ms:86400000}") long planCacheTtlMs,
+                              @Value("${chatbot.cache.plan.height-bucket-cm:5}") int heightBucketCm,
+                              @Value("${chatbot.cache.plan.weight-bucket-kg:5}") int weightBucketKg) {
+        // Mặc định chỉ khớp chính xác; so gần đúng là tùy chọn qua similarity-threshold
+        this.answerCache = new ChatResponseCache<>("chatbot-answers", cacheMaxEntries, cacheTtlMs, similarityThreshold);
+        // Kế hoạch chỉ khớp chính xác theo bucket, không so gần đúng
+        this.planCache = new ChatResponseCache<>("chatbot-plans", planCacheMaxEntries, planCacheTtlMs, 0);
+        this.heightBucketCm = Math.max(1, heightBucketCm);
+        this.weightBucketKg = Math.max(1, weightBucketKg);
+        this.gateway = gateway;
     }
 
     @Override
@@ -44,34 +71,68 @@ public class ChatBotServiceImpl implements ChatBotService {
         String username = authentication != null ? authentication.getName() : "anonymous";
         
         // Update metrics
-        updateChatMetrics(username);
-        
-        // Create body with fitness-specific system context
-        var body = Map.of(
-          "model", "gpt-3.5-turbo",
-          "messages", List.of(
-            Map.of("role", "system", "content", 
-                "You are a professional fitness coach. Provide specific workout and nutrition advice. " +
-                "Focus on offering practical fitness plans, exercise techniques, and healthy eating recommendations. " +
-                "Your answers should be detailed, structured, and tailored to fitness enthusiasts. " +
-                "When asked for plans, provide day-by-day structured workout plans with specific exercises."),
-            Map.of("role", "user", "content", req.message())
-          )
-        );
-        
-        return client.post()
-          .bodyValue(body)
-          .retrieve()
-          .bodyToMono(Map.class)
-          .subscribeOn(Schedulers.boundedElastic())
-          .map(map -> {
-              var choices = (List<?>) map.get("choices");
-              if (choices != null && !choices.isEmpty()) {
-                  var msg = (Map<?,?>)((Map<?,?>)choices.get(0)).get("message");
-                  return (String)msg.get("content");
-              }
-              throw new RuntimeException("AI did not return a response");
-          });
+        chatMetricService.recordMessageSent(username);
+
+        String prompt = ChatResponseCache.normalize(req.message());
+        if (req.noCache()) {
+            answerCache.recordBypass();
+        } else {
+            Optional<String> cached = answerCache.get(prompt);
+            if (cached.isPresent()) {
+                return Mono.just(cached.get());
+            }
+        }
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return gateway.complete(username, coachBody(req, false))
+              .map(completion -> {
+                  String content = completion.firstContent();
+                  if (content != null) {
+                      return content;
+                  }
+                  throw new RuntimeException("AI did not return a response");
+              })
+              .doOnNext(answer -> answerCache.put(prompt, answer, System.nanoTime() - start));
+        });
+    }
+
+    @Override
+    public Flux<String> askStream(ChatBotRequest req) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication != null ? authentication.getName() : "anonymous";
+
+        chatMetricService.recordMessageSent(username);
+
+        String prompt = ChatResponseCache.normalize(req.message());
+        if (req.noCache()) {
+            answerCache.recordBypass();
+        } else {
+            Optional<String> cached = answerCache.get(prompt);
+            if (cached.isPresent()) {
+                // Câu trả lời có sẵn: gửi một delta duy nhất, vẫn lưu transcript như bình thường
+                return Flux.just(cached.get())
+                    .doOnComplete(() -> saveTranscriptAsync(username, req.message(), cached.get()));
+            }
+        }
+
+        // defer: mỗi subscriber có transcript riêng
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            StringBuilder transcript = new StringBuilder();
+            return gateway.stream(username, coachBody(req, true))
+              .map(event -> event.data() == null ? "" : event.data().trim())
+              .takeWhile(data -> !"[DONE]".equals(data))
+              .mapNotNull(this::deltaContent)
+              .doOnNext(transcript::append)
+              .doOnComplete(() -> {
+                  String answer = transcript.toString();
+                  if (!answer.isEmpty()) {
+                      answerCache.put(prompt, answer, System.nanoTime() - start);
+                  }
+                  saveTranscriptAsync(username, req.message(), answer);
+              });
+        });
     }
 
     @Override
@@ -81,8 +142,18 @@ public class ChatBotServiceImpl implements ChatBotService {
         String username = authentication != null ? authentication.getName() : "anonymous";
         
         // Update metrics
-        updateChatMetrics(username);
-        
+        chatMetricService.recordMessageSent(username);
+
+        String planKey = planKey(req);
+        if (req.noCache()) {
+            planCache.recordBypass();
+        } else {
+            Optional<WorkoutPlanDto> cached = planCache.get(planKey);
+            if (cached.isPresent()) {
+                return Mono.just(cached.get());
+            }
+        }
+
         String prompt = String.format("""
             You are a fitness coach. User info:
             - height: %.0f cm
@@ -102,33 +173,87 @@ public class ChatBotServiceImpl implements ChatBotService {
             Map.of("role","user","content",prompt)
           )
         );
-        return client.post()
-          .bodyValue(body)
-          .retrieve()
-          .bodyToMono(Map.class)
-          .subscribeOn(Schedulers.boundedElastic())
-          .map(map -> {
-              var choices = (List<?>) map.get("choices");
-              if (choices!=null && !choices.isEmpty()) {
-                  var msg = (Map<?,?>)((Map<?,?>)choices.get(0)).get("message");
-                  String json = ((String)msg.get("content")).trim();
-                  return WorkoutPlanDto.fromJson(json);
-              }
-              throw new RuntimeException("AI did not return a plan");
-          });
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return gateway.complete(username, body)
+              .map(completion -> {
+                  String content = completion.firstContent();
+                  if (content != null) {
+                      // fromJson trả về danh sách bất biến, dùng chung được giữa các user
+                      return WorkoutPlanDto.fromJson(content);
+                  }
+                  throw new RuntimeException("AI did not return a plan");
+              })
+              .doOnNext(plan -> planCache.put(planKey, plan, System.nanoTime() - start));
+        });
+    }
+
+    @Override
+    public List<ChatCacheStats> getCacheStats() {
+        return List.of(answerCache.stats(), planCache.stats());
+    }
+
+    @Override
+    public void clearCache() {
+        answerCache.clear();
+        planCache.clear();
+    }
+
+    // Chiều cao/cân nặng làm tròn xuống theo bucket, mục tiêu chuẩn hóa như câu hỏi
+    private String planKey(ChatBotRequest req) {
+        return "h=" + bucket(req.height(), heightBucketCm)
+            + "|w=" + bucket(req.weight(), weightBucketKg)
+            + "|aim=" + ChatResponseCache.normalize(req.aim());
+    }
+
+    private static String bucket(Double value, int size) {
+        if (value == null) {
+            return "?";
+        }
+        return String.valueOf((long) Math.floor(value / size) * size);
     }
     
-    private void updateChatMetrics(String username) {
+    private Map<String, Object> coachBody(ChatBotRequest req, boolean stream) {
+        // Create body with fitness-specific system context
+        return Map.of(
+          "model", "gpt-3.5-turbo",
+          "stream", stream,
+          "messages", List.of(
+            Map.of("role", "system", "content", 
+                "You are a professional fitness coach. Provide specific workout and nutrition advice. " +
+                "Focus on offering practical fitness plans, exercise techniques, and healthy eating recommendations. " +
+                "Your answers should be detailed, structured, and tailored to fitness enthusiasts. " +
+                "When asked for plans, provide day-by-day structured workout plans with specific exercises."),
+            Map.of("role", "user", "content", req.message())
+          )
+        );
+    }
+
+    // Mỗi chunk SSE là một chat.completion.chunk; nội dung nằm ở choices[0].delta.content
+    private String deltaContent(String data) {
+        if (data.isEmpty()) {
+            return null;
+        }
         try {
-            ChatMetric metric = chatMetricRepository.findById(username)
-                .orElse(new ChatMetric(username));
-            
-            metric.setMessageCount(metric.getMessageCount() + 1);
-            metric.setLastSentAt(LocalDateTime.now());
-            
-            chatMetricRepository.save(metric);
-        } catch (Exception e) {
-            System.err.println("Error updating chat metrics: " + e.getMessage());
+            String content = objectMapper.readValue(data, ChatCompletion.class).firstDeltaContent();
+            return content == null || content.isEmpty() ? null : content;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed completion chunk from AI", e);
         }
     }
+
+    private void saveTranscriptAsync(String username, String message, String response) {
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                chatLogService.saveLog(username, truncate(message, 1000), truncate(response, 2000), false);
+            } catch (Exception e) {
+                logger.warn("Error saving chat log for {}", username, e);
+            }
+        });
+    }
+
+    // Cắt theo độ dài cột của ChatLog
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
 }
@@ -0,0 +1,138 @@
+package com.ufit.server.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufit.server.dto.response.ChatHistoryPage;
+import com.ufit.server.entity.ChatEntity;
+import com.ufit.server.repository.ChatMessageRepository;
+import com.ufit.server.service.ChatHistoryService;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class ChatHistoryServiceImpl implements ChatHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FLUSH_EVERY = 500;
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Giới hạn của DATETIME trong MySQL, dùng khi không lọc theo thời gian
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final ChatMessageRepository chatRepo;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ChatHistoryServiceImpl(ChatMessageRepository chatRepo,
+                                  EntityManager entityManager,
+                                  ObjectMapper objectMapper) {
+        this.chatRepo = chatRepo;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChatHistoryPage getPage(String sender, LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime lower = from != null ? from : MIN_TIMESTAMP;
+        // Trang đầu: (to, 0) nghĩa là mọi tin nhắn có timestamp < to
+        LocalDateTime beforeTimestamp = to != null ? to : MAX_TIMESTAMP;
+        Long beforeId = to != null ? 0L : Long.MAX_VALUE;
+        validateRange(lower, beforeTimestamp);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            try {
+                beforeTimestamp = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<ChatEntity> messages = sender != null && !sender.isBlank()
+            ? chatRepo.findBySenderBefore(sender, lower, beforeTimestamp, beforeId, limit)
+            : chatRepo.findAllBefore(lower, beforeTimestamp, beforeId, limit);
+
+        String nextCursor = null;
+        if (messages.size() > pageSize) {
+            messages = messages.subList(0, pageSize);
+            ChatEntity last = messages.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getTimestamp(), last.getId());
+        }
+        return new ChatHistoryPage(messages, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportNdjson(String sender, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        LocalDateTime lower = from != null ? from : MIN_TIMESTAMP;
+        LocalDateTime upper = to != null ? to : MAX_TIMESTAMP;
+        validateRange(lower, upper);
+        long count = 0;
+        try (Stream<ChatEntity> rows = sender != null && !sender.isBlank()
+                ? chatRepo.streamBySenderRange(sender, lower, upper)
+                : chatRepo.streamRange(lower, upper);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // Không đóng output stream của response khi đóng generator
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Mỗi dòng một object, không dùng dấu cách phân tách mặc định của Jackson
+            json.setRootValueSeparator(null);
+            Iterator<ChatEntity> it = rows.iterator();
+            while (it.hasNext()) {
+                ChatEntity chat = it.next();
+                json.writeStartObject();
+                json.writeNumberField("id", chat.getId());
+                json.writeStringField("sender", chat.getSender());
+                json.writeStringField("content", chat.getContent());
+                json.writeStringField("timestamp", chat.getTimestamp() != null ? ISO.format(chat.getTimestamp()) : null);
+                json.writeEndObject();
+                json.writeRaw('\n');
+                // Bỏ entity khỏi persistence context để bộ nhớ không tăng theo số dòng
+                entityManager.detach(chat);
+                if (++count % EXPORT_FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    private static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = ISO.format(timestamp) + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("_", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.dto.response.ChatPersistenceStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind persistence for public chat messages.
+ *
+ * {@link #enqueue} only puts the message on a bounded queue; one background
+ * thread drains it into batched JDBC inserts, flushing when
+ * {@code chat.persistence.flush-size} messages are waiting or
+ * {@code chat.persistence.flush-interval-ms} has passed since the first one.
+ * When the queue is full the caller waits up to
+ * {@code chat.persistence.offer-timeout-ms} and is then refused. On shutdown
+ * the queue is drained before the data source goes away.
+ */
+@Component
+public class ChatMessageWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    private static final String INSERT_CHAT =
+        "INSERT INTO chat_entity (sender, content, timestamp) VALUES (?, ?, ?)";
+    private static final int CONTENT_LENGTH = 1000;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private record PendingMessage(String sender, String content, LocalDateTime timestamp) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingMessage> queue;
+    private final int queueCapacity;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final Thread writer;
+    private volatile boolean stopping;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${chat.persistence.queue-capacity:10000}") int queueCapacity,
+                             @Value("${chat.persistence.flush-size:200}") int flushSize,
+                             @Value("${chat.persistence.flush-interval-ms:500}") long flushIntervalMillis,
+                             @Value("${chat.persistence.offer-timeout-ms:100}") long offerTimeoutMillis,
+                             @Value("${chat.persistence.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = Math.max(1, flushSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.writer = new Thread(this::run, "chat-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a message for persistence.
+     *
+     * @return false if the queue stayed full for the offer timeout or the
+     *         writer is shutting down
+     */
+    public boolean enqueue(String sender, String content, LocalDateTime timestamp) {
+        if (stopping) {
+            rejected.increment();
+            return false;
+        }
+        // Cắt theo độ dài cột: một dòng lỗi sẽ làm hỏng cả batch
+        String text = content != null && content.length() > CONTENT_LENGTH
+            ? content.substring(0, CONTENT_LENGTH) : content;
+        try {
+            if (queue.offer(new PendingMessage(sender, text, timestamp), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public ChatPersistenceStats stats() {
+        long batchCount = batches.sum();
+        double avgBatch = batchCount == 0 ? 0 : (double) written.sum() / batchCount;
+        return new ChatPersistenceStats(queue.size(), queueCapacity, flushSize,
+            TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos), written.sum(), batchCount,
+            Math.round(avgBatch * 10) / 10.0, rejected.sum(), failed.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Không interrupt: thread có thể đang giữa một lệnh JDBC; vòng lặp tự thấy cờ stopping
+        // sau tối đa một flushInterval rồi ghi nốt hàng đợi
+        stopping = true;
+        writer.join(shutdownTimeoutMillis);
+        if (!queue.isEmpty()) {
+            logger.error("Chat writer stopped with {} messages still queued", queue.size());
+        }
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(flushSize);
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                fill(batch);
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, flushSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Chờ tin đầu tiên, rồi gom thêm đến khi đủ flushSize hoặc hết flushInterval
+    private void fill(List<PendingMessage> batch) throws InterruptedException {
+        if (stopping) {
+            queue.drainTo(batch, flushSize);
+            return;
+        }
+        PendingMessage first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0) {
+                return;
+            }
+            PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingMessage message : batch) {
+            rows.add(new Object[]{message.sender(), message.content(), Timestamp.valueOf(message.timestamp())});
+        }
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_CHAT, rows));
+                written.add(batch.size());
+                batches.increment();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Chat batch of {} failed (attempt {}/{}): {}",
+                    batch.size(), attempt, MAX_WRITE_ATTEMPTS, e.getMessage());
+                if (attempt < MAX_WRITE_ATTEMPTS && !stopping) {
+                    try {
+                        Thread.sleep(200L * attempt);
+                    } catch (InterruptedException ignored) {
+                        // thử lại ngay
+                    }
+                }
+            }
+        }
+        failed.add(batch.size());
+        logger.error("Dropped {} chat messages after {} failed attempts", batch.size(), MAX_WRITE_ATTEMPTS);
+    }
+}
@@ -1,30 +1,127 @@
 // server/src/main/java/com/ufit/server/service/impl/ChatMetricServiceImpl.java
 package com.ufit.server.service.impl;
 
-import com.ufit.server.entity.ChatMetric;
-import com.ufit.server.repository.ChatMetricRepository;
 import com.ufit.server.service.ChatMetricService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Per-user chat message counters with write-behind persistence.
+ *
+ * {@link #recordMessageSent} only bumps an in-memory counter and last-seen
+ * time, so the STOMP inbound path and the chatbot do no I/O. Pending
+ * counts are flushed to {@code chat_metrics} in one batched upsert every
+ * {@code chat.metrics.flush-interval-ms}. Users with nothing left to flush
+ * are dropped from the map afterwards, so it only holds recently active users.
+ */
 @Service
-@Transactional
 public class ChatMetricServiceImpl implements ChatMetricService {
 
-    private final ChatMetricRepository repo;
+    private static final Logger logger = LoggerFactory.getLogger(ChatMetricServiceImpl.class);
 
-    public ChatMetricServiceImpl(ChatMetricRepository repo) {
-        this.repo = repo;
+    // Cộng dồn vào bản ghi sẵn có, hoặc tạo mới nếu user chưa có dòng nào;
+    // GREATEST để lượt flush của instance khác không kéo thời gian lùi lại
+    private static final String UPSERT_METRIC =
+        "INSERT INTO chat_metrics (username, message_count, last_sent_at) VALUES (?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE message_count = message_count + VALUES(message_count), " +
+        "last_sent_at = GREATEST(last_sent_at, VALUES(last_sent_at))";
+
+    /** Messages not yet flushed and the latest send time for one user. */
+    static final class PendingMetric {
+        // -1: entry đã bị gỡ khỏi map, không nhận thêm tin nhắn
+        private static final long RETIRED = -1;
+
+        final AtomicLong messages = new AtomicLong();
+        final AtomicLong lastSentAtMillis = new AtomicLong();
+
+        boolean tryAdd(long count) {
+            return messages.getAndUpdate(v -> v == RETIRED ? v : v + count) != RETIRED;
+        }
+
+        // Chỉ gỡ được khi không còn gì chờ ghi, cùng một thao tác với tryAdd nên không mất tin nhắn
+        boolean tryRetire() {
+            return messages.compareAndSet(0, RETIRED);
+        }
+    }
+
+    private final ConcurrentHashMap<String, PendingMetric> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChatMetricServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
     public void recordMessageSent(String username) {
-        ChatMetric m = repo.findById(username)
-                           .orElse(new ChatMetric(username));
-        m.setMessageCount(m.getMessageCount() + 1);
-        m.setLastSentAt(LocalDateTime.now());
-        repo.save(m);
+        add(username, 1, System.currentTimeMillis());
+    }
+
+    private void add(String username, long count, long sentAtMillis) {
+        while (true) {
+            PendingMetric metric = pending.computeIfAbsent(username, k -> new PendingMetric());
+            metric.lastSentAtMillis.accumulateAndGet(sentAtMillis, Math::max);
+            if (metric.tryAdd(count)) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.metrics.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<String> usernames = new ArrayList<>();
+            List<Object[]> batch = new ArrayList<>();
+            for (Map.Entry<String, PendingMetric> entry : pending.entrySet()) {
+                PendingMetric metric = entry.getValue();
+                // Lấy và reset trong một thao tác, tin nhắn đến song song vào lượt sau
+                long count = metric.messages.getAndSet(0);
+                if (count == 0) {
+                    continue;
+                }
+                usernames.add(entry.getKey());
+                batch.add(new Object[] { entry.getKey(), count, new Timestamp(metric.lastSentAtMillis.get()) });
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                // Một transaction: dòng lỗi làm rollback cả lô, nên cộng lại toàn bộ không bị đếm hai lần
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_METRIC, batch));
+                removeIdle();
+            } catch (RuntimeException e) {
+                logger.error("Failed to flush chat metrics for {} users, will retry", batch.size(), e);
+                for (int i = 0; i < batch.size(); i++) {
+                    Object[] row = batch.get(i);
+                    add(usernames.get(i), (long) row[1], ((Timestamp) row[2]).getTime());
+                }
+            }
+        }
+    }
+
+    private void removeIdle() {
+        for (String username : pending.keySet()) {
+            pending.computeIfPresent(username, (k, metric) -> metric.tryRetire() ? null : metric);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
     }
 }
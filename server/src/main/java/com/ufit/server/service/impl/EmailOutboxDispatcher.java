@@ -0,0 +1,227 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.entity.EmailOutbox;
+import com.ufit.server.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers queued {@link EmailOutbox} rows. Due rows are claimed in one
+ * update and handed in batches to a small worker pool; each batch goes out
+ * over a single SMTP connection via {@code JavaMailSender.send(...)}.
+ * Failed messages are retried with exponential backoff until
+ * {@code mail.outbox.max-attempts}, then marked FAILED.
+ * A claimed row holds a lease of {@code mail.outbox.lease-ms} in
+ * {@code nextAttemptAt}; SENDING rows whose lease ran out (worker died,
+ * outcome could not be recorded) are put back to PENDING periodically.
+ * Assumes a single application instance.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long leaseMillis;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 JavaMailSender mailSender,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${mail.outbox.workers:2}") int workerCount,
+                                 @Value("${mail.outbox.batch-size:20}") int batchSize,
+                                 @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${mail.outbox.backoff-base-ms:5000}") long backoffBaseMillis,
+                                 @Value("${mail.outbox.backoff-max-ms:3600000}") long backoffMaxMillis,
+                                 @Value("${mail.outbox.lease-ms:600000}") long leaseMillis) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.leaseMillis = leaseMillis;
+        AtomicInteger counter = new AtomicInteger();
+        // Hàng đợi nhỏ: poller chỉ claim số batch mà pool nhận được
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workerCount),
+            r -> {
+                Thread t = new Thread(r, "mail-outbox-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void releaseInFlight() {
+        // Bản ghi đang SENDING khi ứng dụng dừng được đưa lại hàng đợi
+        Integer released = transactionTemplate.execute(status ->
+            outboxRepository.moveStatus(EmailOutbox.Status.SENDING, EmailOutbox.Status.PENDING));
+        if (released != null && released > 0) {
+            logger.info("Re-queued {} emails left in flight by the previous run", released);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.reclaim-interval-ms:60000}")
+    public void reclaimExpired() {
+        // SENDING quá hạn lease: worker không ghi được kết quả, gửi lại
+        Integer reclaimed = transactionTemplate.execute(status ->
+            outboxRepository.moveExpired(EmailOutbox.Status.SENDING, EmailOutbox.Status.PENDING,
+                LocalDateTime.now()));
+        if (reclaimed != null && reclaimed > 0) {
+            logger.warn("Re-queued {} emails whose sending lease expired", reclaimed);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        int freeSlots = workers.getMaximumPoolSize() + workers.getQueue().remainingCapacity()
+            - workers.getActiveCount() - workers.getQueue().size();
+        if (freeSlots <= 0) {
+            return;
+        }
+        List<EmailOutbox> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.findDue(EmailOutbox.Status.PENDING, now,
+                PageRequest.of(0, freeSlots * batchSize));
+            if (!due.isEmpty()) {
+                outboxRepository.updateStatus(due.stream().map(EmailOutbox::getId).toList(),
+                    EmailOutbox.Status.SENDING, now.plusNanos(leaseMillis * 1_000_000));
+            }
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<EmailOutbox> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            try {
+                workers.execute(() -> deliver(batch));
+            } catch (RejectedExecutionException e) {
+                // Pool đầy hoặc đang dừng: trả phần chưa giao về PENDING
+                requeue(claimed.subList(from, claimed.size()));
+                return;
+            }
+        }
+    }
+
+    private void requeue(List<EmailOutbox> emails) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.updateStatus(emails.stream().map(EmailOutbox::getId).toList(),
+                    EmailOutbox.Status.PENDING, LocalDateTime.now()));
+            logger.warn("Worker pool rejected {} claimed emails, re-queued", emails.size());
+        } catch (RuntimeException e) {
+            // Còn SENDING, reclaimExpired sẽ trả lại khi hết lease
+            logger.error("Failed to re-queue {} rejected outbox emails", emails.size(), e);
+        }
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox email = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages[i] = message;
+        }
+
+        List<Long> sent = new ArrayList<>();
+        List<EmailOutbox> failed = new ArrayList<>();
+        try {
+            mailSender.send(messages);
+            batch.forEach(email -> sent.add(email.getId()));
+        } catch (MailSendException e) {
+            // failedMessages chứa đúng các message lỗi, phần còn lại đã gửi được
+            Map<Object, Exception> failures = e.getFailedMessages();
+            for (int i = 0; i < batch.size(); i++) {
+                Exception cause = failureOf(failures, messages[i]);
+                if (cause == null && !failures.isEmpty()) {
+                    sent.add(batch.get(i).getId());
+                } else {
+                    failed.add(scheduleRetry(batch.get(i), cause != null ? cause : e));
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(email -> failed.add(scheduleRetry(email, e)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!sent.isEmpty()) {
+                    outboxRepository.markSent(sent, EmailOutbox.Status.SENT, LocalDateTime.now());
+                }
+                outboxRepository.saveAll(failed);
+            });
+        } catch (RuntimeException e) {
+            // Còn SENDING, reclaimExpired sẽ trả lại khi hết lease
+            logger.error("Failed to record outcome of {} outbox emails", batch.size(), e);
+        }
+        if (!failed.isEmpty()) {
+            logger.warn("Email batch: {} sent, {} failed", sent.size(), failed.size());
+        }
+    }
+
+    private static Exception failureOf(Map<Object, Exception> failures, SimpleMailMessage message) {
+        for (Map.Entry<Object, Exception> entry : failures.entrySet()) {
+            if (entry.getKey() == message) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private EmailOutbox scheduleRetry(EmailOutbox email, Exception cause) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        String error = String.valueOf(cause.getMessage());
+        email.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (attempts >= maxAttempts) {
+            email.setStatus(EmailOutbox.Status.FAILED);
+            // Lỗi SMTP thường chứa địa chỉ người nhận: chỉ ghi id, chi tiết nằm ở last_error
+            logger.error("Giving up on outbox email {} after {} attempts", email.getId(), attempts);
+        } else {
+            // base * 2^(attempts-1), có trần
+            long delay = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempts - 1, 20));
+            email.setStatus(EmailOutbox.Status.PENDING);
+            email.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+        }
+        return email;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
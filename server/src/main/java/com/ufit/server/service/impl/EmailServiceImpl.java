@@ -1,24 +1,21 @@
 package com.ufit.server.service.impl;
 
+import com.ufit.server.entity.EmailOutbox;
+import com.ufit.server.repository.EmailOutboxRepository;
 import com.ufit.server.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailServiceImpl implements EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
 
     @Override
     public void sendEmail(String to, String subject, String content) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(content);
-        mailSender.send(message);
+        // Chỉ ghi vào outbox (cùng transaction với caller), EmailOutboxDispatcher gửi SMTP nền
+        outboxRepository.save(new EmailOutbox(to, subject, content));
     }
 
     @Override
@@ -32,4 +29,4 @@ public class EmailServiceImpl implements EmailService {
         
         sendEmail(email, subject, content);
     }
-}
\ No newline at end of file
+}
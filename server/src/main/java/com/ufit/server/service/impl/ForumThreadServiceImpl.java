@@ -0,0 +1,124 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.dto.response.PostResponse;
+import com.ufit.server.entity.ForumPost;
+import com.ufit.server.repository.ForumPostRepository;
+import com.ufit.server.repository.ForumVoteRepository;
+import com.ufit.server.repository.projection.UserPostVote;
+import com.ufit.server.service.ForumThreadService;
+import com.ufit.server.service.VoteService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ForumThreadServiceImpl implements ForumThreadService {
+
+    private static final Comparator<ForumPost> BY_CREATION =
+        Comparator.comparing(ForumPost::getCreatedAt).thenComparing(ForumPost::getId);
+
+    private final ForumPostRepository postRepository;
+    private final ForumVoteRepository voteRepository;
+    private final VoteService voteService;
+
+    public ForumThreadServiceImpl(ForumPostRepository postRepository,
+                                  ForumVoteRepository voteRepository,
+                                  VoteService voteService) {
+        this.postRepository = postRepository;
+        this.voteRepository = voteRepository;
+        this.voteService = voteService;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostResponse> loadThread(Long topicId, String username) {
+        // 1) Toàn bộ post của topic trong một câu truy vấn
+        List<ForumPost> posts = postRepository.findByTopicId(topicId);
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 2) Vote của người dùng hiện tại cho tất cả các post đó, một câu IN
+        Map<Long, Boolean> userVotes = loadUserVotes(posts, username);
+
+        // 3) Dựng cây trong bộ nhớ: parentId -> danh sách reply
+        Map<Long, List<ForumPost>> children = new HashMap<>();
+        List<ForumPost> roots = new ArrayList<>();
+        for (ForumPost post : posts) {
+            if (post.getParentPost() == null) {
+                roots.add(post);
+            } else {
+                children.computeIfAbsent(post.getParentPost().getId(), k -> new ArrayList<>()).add(post);
+            }
+        }
+
+        roots.sort(BY_CREATION);
+        return roots.stream()
+            .map(root -> toResponse(root, children, userVotes))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PostResponse loadPost(Long postId, String username) {
+        ForumPost post = postRepository.findById(postId)
+            .orElseThrow(() -> new IllegalArgumentException("Post not found"));
+
+        // Duyệt theo từng tầng reply: mỗi tầng một câu IN thay vì một câu cho mỗi post
+        List<ForumPost> posts = new ArrayList<>();
+        posts.add(post);
+        Map<Long, List<ForumPost>> children = new HashMap<>();
+        List<Long> level = List.of(post.getId());
+        while (!level.isEmpty()) {
+            List<ForumPost> replies = postRepository.findByParentPostIdIn(level);
+            for (ForumPost reply : replies) {
+                children.computeIfAbsent(reply.getParentPost().getId(), k -> new ArrayList<>()).add(reply);
+            }
+            posts.addAll(replies);
+            level = replies.stream().map(ForumPost::getId).collect(Collectors.toList());
+        }
+
+        return toResponse(post, children, loadUserVotes(posts, username));
+    }
+
+    private Map<Long, Boolean> loadUserVotes(List<ForumPost> posts, String username) {
+        Map<Long, Boolean> userVotes = new HashMap<>();
+        if (username != null) {
+            List<Long> postIds = posts.stream().map(ForumPost::getId).collect(Collectors.toList());
+            for (UserPostVote vote : voteRepository.findUserVotesByPostIds(username, postIds)) {
+                userVotes.put(vote.getPostId(), vote.isUpvote());
+            }
+        }
+        return userVotes;
+    }
+
+    private PostResponse toResponse(ForumPost post,
+                                    Map<Long, List<ForumPost>> children,
+                                    Map<Long, Boolean> userVotes) {
+        List<PostResponse> replies = children.getOrDefault(post.getId(), List.of()).stream()
+            .sorted(BY_CREATION)
+            .map(reply -> toResponse(reply, children, userVotes))
+            .collect(Collectors.toList());
+
+        Boolean userVoteIsUpvote = userVotes.get(post.getId());
+        return new PostResponse(
+            post.getId(),
+            post.getAuthor(),
+            post.getContent(),
+            post.getCreatedAt(),
+            post.getImageUrl(),
+            voteService.getUpvotes(post),
+            voteService.getDownvotes(post),
+            post.getParentPost() != null ? post.getParentPost().getId() : null,
+            replies,
+            userVoteIsUpvote != null,
+            userVoteIsUpvote
+        );
+    }
+}
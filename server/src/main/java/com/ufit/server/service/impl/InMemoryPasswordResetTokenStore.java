@@ -0,0 +1,96 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.service.PasswordResetTokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reset tokens kept in memory, lost on restart. Lookups go through a
+ * concurrent map; a priority queue ordered by expiry drives the sweeper
+ * and the hard capacity, which evicts the token closest to expiry first.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.reset-tokens.store", havingValue = "memory")
+public class InMemoryPasswordResetTokenStore implements PasswordResetTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryPasswordResetTokenStore.class);
+
+    private record Entry(String token, String email, LocalDateTime expiresAt) {}
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    // consume không khóa hàng đợi nên entry đã dùng còn nằm lại đến khi hết hạn;
+    // khi đầy, các entry đó được dọn trước khi phải bỏ token còn sống
+    private final PriorityQueue<Entry> byExpiry = new PriorityQueue<>(Comparator.comparing(Entry::expiresAt));
+    private final int maxEntries;
+
+    public InMemoryPasswordResetTokenStore(@Value("${auth.reset-tokens.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public void save(String token, String email, LocalDateTime expiresAt) {
+        Entry entry = new Entry(token, email, expiresAt);
+        synchronized (byExpiry) {
+            if (byExpiry.size() >= maxEntries) {
+                sweepExpired();
+            }
+            if (byExpiry.size() >= maxEntries) {
+                // So sánh tham chiếu: token được save lại cũng để entry cũ thành rác
+                byExpiry.removeIf(stale -> tokens.get(stale.token()) != stale);
+            }
+            int evicted = 0;
+            while (byExpiry.size() >= maxEntries) {
+                Entry oldest = byExpiry.poll();
+                tokens.remove(oldest.token(), oldest);
+                evicted++;
+            }
+            if (evicted > 0) {
+                // Chỉ ghi số lượng, không ghi email của người dùng vào log
+                logger.warn("Password reset token store full ({} entries), evicted {} tokens", maxEntries, evicted);
+            }
+            byExpiry.add(entry);
+            tokens.put(token, entry);
+        }
+    }
+
+    @Override
+    public Optional<String> consume(String token) {
+        Entry entry = tokens.remove(token);
+        if (entry == null || !LocalDateTime.now().isBefore(entry.expiresAt())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.email());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${auth.reset-tokens.sweep-interval-ms:60000}")
+    public int sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        synchronized (byExpiry) {
+            while (!byExpiry.isEmpty() && !now.isBefore(byExpiry.peek().expiresAt())) {
+                Entry expired = byExpiry.poll();
+                if (tokens.remove(expired.token(), expired)) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public long size() {
+        return tokens.size();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.entity.Token;
+import com.ufit.server.repository.TokenReponsitory;
+import com.ufit.server.service.PasswordResetTokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reset tokens persisted in {@code password_reset_tokens}, so links survive
+ * restarts. The primary key is the SHA-256 of the token: lookups are a
+ * primary-key read and a leaked table does not expose usable links.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.reset-tokens.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaPasswordResetTokenStore implements PasswordResetTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaPasswordResetTokenStore.class);
+
+    private final TokenReponsitory tokenRepository;
+    private final int maxEntries;
+    // Số dòng ước lượng; sweep định kỳ (chạy ngay khi khởi động) đồng bộ lại với COUNT(*)
+    private final AtomicLong approximateSize = new AtomicLong();
+
+    public JpaPasswordResetTokenStore(TokenReponsitory tokenRepository,
+                                      @Value("${auth.reset-tokens.max-entries:10000}") int maxEntries) {
+        this.tokenRepository = tokenRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    @Transactional
+    public void save(String token, String email, LocalDateTime expiresAt) {
+        // Chỉ đếm chính xác khi ước lượng cho thấy bảng có thể đã đầy
+        if (approximateSize.get() >= maxEntries) {
+            makeRoom();
+        }
+        tokenRepository.save(new Token(hash(token), email, expiresAt));
+        approximateSize.incrementAndGet();
+    }
+
+    private void makeRoom() {
+        long size = tokenRepository.count() - tokenRepository.deleteExpired(LocalDateTime.now());
+        if (size >= maxEntries) {
+            // Vẫn đầy: bỏ các token sắp hết hạn nhất
+            int overflow = (int) (size - maxEntries + 1);
+            List<String> evicted = tokenRepository.findEarliestExpiring(PageRequest.of(0, overflow));
+            tokenRepository.deleteAllByIdInBatch(evicted);
+            logger.warn("Password reset token store full ({} entries), evicted {} tokens", maxEntries, evicted.size());
+            size -= evicted.size();
+        }
+        approximateSize.set(size);
+    }
+
+    @Override
+    @Transactional
+    public Optional<String> consume(String token) {
+        String tokenHash = hash(token);
+        Optional<Token> stored = tokenRepository.findById(tokenHash);
+        // Chỉ request xóa được dòng mới dùng token, tránh dùng một token hai lần
+        if (stored.isEmpty() || tokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
+        }
+        approximateSize.decrementAndGet();
+        if (stored.get().isExpired()) {
+            return Optional.empty();
+        }
+        return Optional.of(stored.get().getEmail());
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.reset-tokens.sweep-interval-ms:60000}")
+    public int sweepExpired() {
+        int deleted = tokenRepository.deleteExpired(LocalDateTime.now());
+        approximateSize.set(tokenRepository.count());
+        return deleted;
+    }
+
+    @Override
+    public long size() {
+        return tokenRepository.count();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
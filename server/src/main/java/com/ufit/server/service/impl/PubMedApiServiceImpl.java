@@ -1,5 +1,6 @@
 package com.ufit.server.service.impl;
 
+import com.ufit.server.config.HttpClientFactory;
 import com.ufit.server.dto.response.PubMedDataDto;
 import com.ufit.server.service.PubMedApiService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +14,8 @@ public class PubMedApiServiceImpl implements PubMedApiService {
     private final WebClient webClient;
 
     @Autowired
-    public PubMedApiServiceImpl(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.baseUrl("https://eutils.ncbi.nlm.nih.gov/entrez/eutils").build();
+    public PubMedApiServiceImpl(HttpClientFactory httpClientFactory) {
+        this.webClient = httpClientFactory.builder("pubmed").baseUrl("https://eutils.ncbi.nlm.nih.gov/entrez/eutils").build();
     }
 
     @Override
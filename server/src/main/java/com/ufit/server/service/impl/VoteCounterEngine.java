@@ -0,0 +1,364 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.repository.ForumVoteRepository;
+import com.ufit.server.repository.projection.AuthorVoteTotals;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory vote counters with write-behind persistence.
+ *
+ * Vote rows are still written synchronously by {@link VoteServiceImpl}; only
+ * the denormalized totals ({@code forum_posts.upvotes/downvotes} and the
+ * author's running {@code users.upvotes_received/downvotes_received/karma})
+ * are buffered here and flushed periodically in batched UPDATEs, so hot
+ * posts no longer serialize on their row locks. Posts and authors with
+ * nothing left to flush are dropped from the maps after a successful flush.
+ */
+@Component
+public class VoteCounterEngine implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteCounterEngine.class);
+
+    private static final String UPDATE_POST_COUNTS =
+        "UPDATE forum_posts SET upvotes = upvotes + ?, downvotes = downvotes + ? WHERE id = ?";
+
+    // Karma = +1 cho mỗi 3 upvote, -1 cho mỗi 5 downvote nhận được.
+    // karma được gán trước để cả MySQL (gán từ trái sang phải) lẫn SQL chuẩn đều dùng giá trị cũ + delta.
+    private static final String UPDATE_AUTHOR_TOTALS =
+        "UPDATE users SET karma = FLOOR((upvotes_received + ?) / 3) - FLOOR((downvotes_received + ?) / 5), " +
+        "upvotes_received = upvotes_received + ?, downvotes_received = downvotes_received + ? " +
+        "WHERE username = ?";
+
+    private static final String RESET_AUTHOR_TOTALS =
+        "UPDATE users SET upvotes_received = 0, downvotes_received = 0, karma = 0";
+
+    private static final String SET_AUTHOR_TOTALS =
+        "UPDATE users SET upvotes_received = ?, downvotes_received = ?, karma = ? WHERE username = ?";
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    // Đếm lại số vote của mọi bài từ forum_votes, dùng khi delta chưa flush bị mất (process chết)
+    private static final String RESET_POST_COUNTS =
+        "UPDATE forum_posts SET " +
+        "upvotes = (SELECT COUNT(*) FROM forum_votes v WHERE v.post_id = forum_posts.id AND v.is_upvote = TRUE), " +
+        "downvotes = (SELECT COUNT(*) FROM forum_votes v WHERE v.post_id = forum_posts.id AND v.is_upvote = FALSE)";
+
+    private static final String SUM_POST_COUNTS =
+        "SELECT COALESCE(SUM(upvotes + downvotes), 0) FROM forum_posts";
+    private static final String COUNT_POST_VOTES =
+        "SELECT COUNT(*) FROM forum_votes v JOIN forum_posts p ON p.id = v.post_id";
+
+    // So khớp tổng vote đã cộng vào users với số vote thực tế trên bài của user đó
+    private static final String SUM_AUTHOR_TOTALS =
+        "SELECT COALESCE(SUM(upvotes_received + downvotes_received), 0) FROM users";
+    private static final String COUNT_AUTHORED_VOTES =
+        "SELECT COUNT(*) FROM forum_votes v JOIN forum_posts p ON p.id = v.post_id " +
+        "JOIN users u ON u.username = p.author";
+
+    /**
+     * Pending up/down changes for one key, packed into one long (upvotes in
+     * the high 32 bits, downvotes in the low 32 bits) so both move together
+     * and an idle entry can be retired in the same atomic step.
+     */
+    static final class VoteDelta {
+        // Entry đã bị gỡ khỏi map, không nhận thêm delta
+        private static final long RETIRED = Long.MIN_VALUE;
+
+        private final AtomicLong packed = new AtomicLong();
+
+        boolean tryAdd(long upvoteDelta, long downvoteDelta) {
+            return packed.getAndUpdate(v -> v == RETIRED ? v
+                : pack(upvotes(v) + upvoteDelta, downvotes(v) + downvoteDelta)) != RETIRED;
+        }
+
+        /** Take the pending changes and leave zero behind. */
+        long[] drain() {
+            long v = packed.getAndUpdate(current -> current == RETIRED ? current : 0);
+            return v == RETIRED ? new long[] { 0, 0 } : new long[] { upvotes(v), downvotes(v) };
+        }
+
+        // Chỉ gỡ được khi không còn gì chờ ghi, cùng một thao tác với tryAdd nên không mất vote
+        boolean tryRetire() {
+            return packed.compareAndSet(0, RETIRED);
+        }
+
+        int pendingUpvotes() {
+            long v = packed.get();
+            return v == RETIRED ? 0 : upvotes(v);
+        }
+
+        int pendingDownvotes() {
+            long v = packed.get();
+            return v == RETIRED ? 0 : downvotes(v);
+        }
+
+        private static long pack(long upvotes, long downvotes) {
+            return ((long) (int) upvotes << 32) | ((int) downvotes & 0xFFFFFFFFL);
+        }
+
+        private static int upvotes(long packed) {
+            return (int) (packed >> 32);
+        }
+
+        private static int downvotes(long packed) {
+            return (int) packed;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, VoteDelta> postDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VoteDelta> authorDeltas = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ForumVoteRepository voteRepository;
+
+    public VoteCounterEngine(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ForumVoteRepository voteRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.voteRepository = voteRepository;
+    }
+
+    /**
+     * Record the effect of an already committed vote change.
+     */
+    public void record(Long postId, String author, int upvoteDelta, int downvoteDelta) {
+        if (upvoteDelta == 0 && downvoteDelta == 0) {
+            return;
+        }
+        add(postDeltas, postId, upvoteDelta, downvoteDelta);
+        // Bài không có tác giả thì chỉ cập nhật số vote của bài; vote đã commit nên không được ném lỗi ở đây
+        if (author != null) {
+            add(authorDeltas, author, upvoteDelta, downvoteDelta);
+        }
+    }
+
+    /**
+     * Backfill the running totals before the web server starts taking votes.
+     * Columns added to an existing schema start at 0; the first vote would
+     * otherwise rewrite that author's karma from a partial total. Post counts
+     * are checked the same way, since deltas still pending when the previous
+     * process died never reached {@code forum_posts}.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Long applied = jdbcTemplate.queryForObject(SUM_POST_COUNTS, Long.class);
+            Long actual = jdbcTemplate.queryForObject(COUNT_POST_VOTES, Long.class);
+            if (applied != null && actual != null && applied.longValue() != actual.longValue()) {
+                logger.info("Post vote counts out of date ({} applied, {} votes), reconciling", applied, actual);
+                reconcilePostCounts();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Startup vote count reconcile failed; run POST /api/admin/karma/reconcile", e);
+        }
+        try {
+            Long applied = jdbcTemplate.queryForObject(SUM_AUTHOR_TOTALS, Long.class);
+            Long actual = jdbcTemplate.queryForObject(COUNT_AUTHORED_VOTES, Long.class);
+            if (applied != null && actual != null && applied.longValue() != actual.longValue()) {
+                logger.info("Karma totals out of date ({} applied, {} votes), reconciling", applied, actual);
+                reconcileAuthorTotals();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Startup karma reconcile failed; run POST /api/admin/karma/reconcile", e);
+        }
+    }
+
+    /** Upvotes recorded for the post that have not been flushed yet. */
+    public int pendingUpvotes(Long postId) {
+        VoteDelta delta = postDeltas.get(postId);
+        return delta != null ? delta.pendingUpvotes() : 0;
+    }
+
+    /** Downvotes recorded for the post that have not been flushed yet. */
+    public int pendingDownvotes(Long postId) {
+        VoteDelta delta = postDeltas.get(postId);
+        return delta != null ? delta.pendingDownvotes() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${forum.votes.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushPostCounts();
+            flushAuthorTotals();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushPostCounts() {
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, VoteDelta> entry : postDeltas.entrySet()) {
+            // Lấy và reset trong một thao tác, vote đến song song vào lượt sau
+            long[] d = entry.getValue().drain();
+            if (d[0] == 0 && d[1] == 0) {
+                continue;
+            }
+            ids.add(entry.getKey());
+            batch.add(new Object[] { d[0], d[1], entry.getKey() });
+        }
+        if (batch.isEmpty()) {
+            retireIdle(postDeltas);
+            return;
+        }
+        try {
+            // Cả lô trong một transaction: lỗi giữa chừng không để lại dòng đã cộng rồi bị cộng lại
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_POST_COUNTS, batch));
+            retireIdle(postDeltas);
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush vote counts for {} posts, will retry", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] row = batch.get(i);
+                add(postDeltas, ids.get(i), (long) row[0], (long) row[1]);
+            }
+        }
+    }
+
+    private void flushAuthorTotals() {
+        Map<String, long[]> drained = drainAuthorDeltas();
+        if (drained.isEmpty()) {
+            retireIdle(authorDeltas);
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(drained.size());
+        drained.forEach((author, d) -> batch.add(new Object[] { d[0], d[1], d[0], d[1], author }));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_AUTHOR_TOTALS, batch));
+            retireIdle(authorDeltas);
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush karma totals for {} authors, will retry", batch.size(), e);
+            restoreAuthorDeltas(drained);
+        }
+    }
+
+    // Lấy ra (và trừ đi) toàn bộ delta tác giả đang chờ
+    private Map<String, long[]> drainAuthorDeltas() {
+        Map<String, long[]> drained = new LinkedHashMap<>();
+        for (Map.Entry<String, VoteDelta> entry : authorDeltas.entrySet()) {
+            long[] d = entry.getValue().drain();
+            if (d[0] != 0 || d[1] != 0) {
+                drained.put(entry.getKey(), d);
+            }
+        }
+        return drained;
+    }
+
+    private void restoreAuthorDeltas(Map<String, long[]> drained) {
+        drained.forEach((author, d) -> add(authorDeltas, author, d[0], d[1]));
+    }
+
+    /**
+     * Recount every post's up/down votes from {@code forum_votes} in one
+     * UPDATE. Callers must make sure no vote is in flight.
+     *
+     * @return number of posts updated
+     */
+    public int reconcilePostCounts() {
+        synchronized (flushLock) {
+            // Như reconcileAuthorTotals: delta đang chờ đã có trong forum_votes, chỉ trả lại nếu lỗi
+            List<Map.Entry<Long, long[]>> drained = new ArrayList<>();
+            for (Map.Entry<Long, VoteDelta> entry : postDeltas.entrySet()) {
+                long[] d = entry.getValue().drain();
+                if (d[0] != 0 || d[1] != 0) {
+                    drained.add(Map.entry(entry.getKey(), d));
+                }
+            }
+            Integer posts;
+            try {
+                posts = transactionTemplate.execute(status -> jdbcTemplate.update(RESET_POST_COUNTS));
+            } catch (RuntimeException e) {
+                drained.forEach(entry -> add(postDeltas, entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+                throw e;
+            }
+            retireIdle(postDeltas);
+            logger.info("Reconciled vote counts for {} posts", posts);
+            return posts != null ? posts : 0;
+        }
+    }
+
+    /**
+     * Rebuild every author's vote totals and karma from {@code forum_votes} in
+     * one streaming pass. Callers must make sure no vote is in flight.
+     *
+     * @return number of authors with at least one vote
+     */
+    public int reconcileAuthorTotals() {
+        synchronized (flushLock) {
+            // Các vote đang chờ đã nằm trong forum_votes nên bản dựng lại sẽ bao gồm chúng:
+            // bỏ delta tác giả thay vì flush (flush lỗi sẽ trả delta về và bị cộng hai lần),
+            // và chỉ trả lại nếu việc dựng lại thất bại
+            Map<String, long[]> drained = drainAuthorDeltas();
+            Integer authors;
+            try {
+                authors = rebuildAuthorTotals();
+            } catch (RuntimeException e) {
+                restoreAuthorDeltas(drained);
+                throw e;
+            }
+            retireIdle(authorDeltas);
+            logger.info("Reconciled karma totals for {} authors", authors);
+            return authors != null ? authors : 0;
+        }
+    }
+
+    private Integer rebuildAuthorTotals() {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(RESET_AUTHOR_TOTALS);
+            int count = 0;
+            List<Object[]> batch = new ArrayList<>(RECONCILE_BATCH_SIZE);
+            try (Stream<AuthorVoteTotals> totals = voteRepository.streamAuthorVoteTotals()) {
+                Iterator<AuthorVoteTotals> it = totals.iterator();
+                while (it.hasNext()) {
+                    AuthorVoteTotals row = it.next();
+                    long up = row.getUpvotes();
+                    long down = row.getDownvotes();
+                    batch.add(new Object[] { up, down, (up / 3) - (down / 5), row.getAuthor() });
+                    count++;
+                    if (batch.size() == RECONCILE_BATCH_SIZE) {
+                        jdbcTemplate.batchUpdate(SET_AUTHOR_TOTALS, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(SET_AUTHOR_TOTALS, batch);
+            }
+            return count;
+        });
+    }
+
+    // Entry vừa bị gỡ thì tryAdd thất bại: lấy entry mới và thử lại
+    private static <K> void add(ConcurrentHashMap<K, VoteDelta> deltas, K key, long upvoteDelta, long downvoteDelta) {
+        while (!deltas.computeIfAbsent(key, k -> new VoteDelta()).tryAdd(upvoteDelta, downvoteDelta)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static <K> void retireIdle(ConcurrentHashMap<K, VoteDelta> deltas) {
+        for (K key : deltas.keySet()) {
+            deltas.computeIfPresent(key, (k, delta) -> delta.tryRetire() ? null : delta);
+        }
+    }
+}
@@ -2,20 +2,25 @@ package com.ufit.server.service.impl;
 
 import com.ufit.server.entity.ForumPost;
 import com.ufit.server.entity.ForumVote;
-import com.ufit.server.entity.User;
 import com.ufit.server.repository.ForumPostRepository;
 import com.ufit.server.repository.ForumVoteRepository;
-import com.ufit.server.repository.UserRepository;
 import com.ufit.server.service.VoteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Service
 public class VoteServiceImpl implements VoteService {
     
+    // Khoá phân dải theo (post, user): hai click liên tiếp của cùng một người
+    // được xử lý tuần tự, còn các người dùng khác không phải chờ nhau
+    private static final int LOCK_STRIPES = 64;
+    
     @Autowired
     private ForumPostRepository postRepository;
     
@@ -23,95 +28,95 @@ public class VoteServiceImpl implements VoteService {
     private ForumVoteRepository voteRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private VoteCounterEngine voteCounter;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private final ReentrantLock[] voteLocks = new ReentrantLock[LOCK_STRIPES];
+    
+    // Vote thường giữ read lock; job đối soát karma giữ write lock để không có vote nào dở dang
+    private final ReentrantReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+    
+    public VoteServiceImpl() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            voteLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    /** Result of one committed vote toggle: the vote row and the counter deltas it implies. */
+    private record VoteChange(ForumVote vote, String postAuthor, int upvoteDelta, int downvoteDelta) {}
     
     @Override
-    @Transactional
     public ForumVote processVote(Long postId, String username, boolean isUpvote) {
+        ReentrantLock lock = voteLocks[Math.floorMod(Objects.hash(postId, username), LOCK_STRIPES)];
+        reconcileLock.readLock().lock();
+        lock.lock();
+        try {
+            VoteChange change = transactionTemplate.execute(status -> applyVote(postId, username, isUpvote));
+            // Chỉ cộng vào bộ đếm sau khi vote đã commit; tổng được ghi xuống DB theo lô
+            voteCounter.record(postId, change.postAuthor(), change.upvoteDelta(), change.downvoteDelta());
+            return change.vote();
+        } finally {
+            lock.unlock();
+            reconcileLock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public int getUpvotes(ForumPost post) {
+        return post.getUpvotes() + voteCounter.pendingUpvotes(post.getId());
+    }
+    
+    @Override
+    public int getDownvotes(ForumPost post) {
+        return post.getDownvotes() + voteCounter.pendingDownvotes(post.getId());
+    }
+    
+    @Override
+    public int reconcileKarma() {
+        reconcileLock.writeLock().lock();
+        try {
+            voteCounter.reconcilePostCounts();
+            return voteCounter.reconcileAuthorTotals();
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+    }
+    
+    private VoteChange applyVote(Long postId, String username, boolean isUpvote) {
         ForumPost post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
         
         Optional<ForumVote> existingVote = voteRepository.findByPostIdAndUsername(postId, username);
         
-        // The post author's karma will be affected
-        User postAuthor = userRepository.findByUsername(post.getAuthor())
-                .orElseThrow(() -> new IllegalArgumentException("Post author not found"));
-        
-        ForumVote vote = null;
-        
         if (existingVote.isPresent()) {
-            vote = existingVote.get();
+            ForumVote vote = existingVote.get();
             
             // If vote is the same as before, remove it (toggle behavior)
             if (vote.isUpvote() == isUpvote) {
-                // Undo the previous vote effect
-                if (isUpvote) {
-                    post.setUpvotes(post.getUpvotes() - 1);
-                    postAuthor.setKarma(postAuthor.getKarma() - 1);
-                } else {
-                    post.setDownvotes(post.getDownvotes() - 1);
-                    postAuthor.setKarma(postAuthor.getKarma() + 1); // Removing a downvote increases karma
-                }
-                
                 voteRepository.delete(vote);
-                postRepository.save(post);
-                userRepository.save(postAuthor);
-                return null; // Vote removed
-            } else {
-                // Change vote direction
-                if (isUpvote) {
-                    // Changed from downvote to upvote
-                    post.setDownvotes(post.getDownvotes() - 1);
-                    post.setUpvotes(post.getUpvotes() + 1);
-                    postAuthor.setKarma(postAuthor.getKarma() + 2); // +2 because removing downvote and adding upvote
-                } else {
-                    // Changed from upvote to downvote
-                    post.setUpvotes(post.getUpvotes() - 1);
-                    post.setDownvotes(post.getDownvotes() + 1);
-                    postAuthor.setKarma(postAuthor.getKarma() - 2); // -2 because removing upvote and adding downvote
-                }
-                
-                vote.setUpvote(isUpvote);
-                postRepository.save(post);
-                userRepository.save(postAuthor);
-                vote = voteRepository.save(vote);
-            }
-        } else {
-            // New vote
-            vote = new ForumVote();
-            vote.setPost(post);
-            vote.setUsername(username);
-            vote.setUpvote(isUpvote);
-            
-            if (isUpvote) {
-                post.setUpvotes(post.getUpvotes() + 1);
-                postAuthor.setKarma(postAuthor.getKarma() + 1);
-            } else {
-                post.setDownvotes(post.getDownvotes() + 1);
-                postAuthor.setKarma(postAuthor.getKarma() - 1);
+                return isUpvote
+                    ? new VoteChange(null, post.getAuthor(), -1, 0)
+                    : new VoteChange(null, post.getAuthor(), 0, -1);
             }
             
-            postRepository.save(post);
-            userRepository.save(postAuthor);
+            // Change vote direction
+            vote.setUpvote(isUpvote);
             vote = voteRepository.save(vote);
+            return isUpvote
+                ? new VoteChange(vote, post.getAuthor(), 1, -1)
+                : new VoteChange(vote, post.getAuthor(), -1, 1);
         }
         
-        // After processing the vote, update user karma with formula
-        String postAuthorUsername = post.getAuthor();
-        User user = userRepository.findByUsername(postAuthorUsername)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        
-        // Get total upvotes and downvotes for the user
-        int totalUpvotes = voteRepository.countByPostAuthorAndIsUpvote(postAuthorUsername, true);
-        int totalDownvotes = voteRepository.countByPostAuthorAndIsUpvote(postAuthorUsername, false);
-        
-        // Calculate karma: +1 for every 3 upvotes, -1 for every 5 downvotes
-        int calculatedKarma = (totalUpvotes / 3) - (totalDownvotes / 5);
-        
-        // Update user karma
-        user.setKarma(calculatedKarma);
-        userRepository.save(user);
-        
-        return vote;
+        // New vote; the (post_id, username) unique constraint keeps it at one per user
+        ForumVote vote = new ForumVote();
+        vote.setPost(post);
+        vote.setUsername(username);
+        vote.setUpvote(isUpvote);
+        vote = voteRepository.save(vote);
+        return isUpvote
+            ? new VoteChange(vote, post.getAuthor(), 1, 0)
+            : new VoteChange(vote, post.getAuthor(), 0, 1);
     }
-}
\ No newline at end of file
+}
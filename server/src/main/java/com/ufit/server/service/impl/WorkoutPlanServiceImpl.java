@@ -26,9 +26,8 @@ public class WorkoutPlanServiceImpl implements WorkoutPlanService {
   }
 
   @Override
-  public WorkoutPlanDto previewPlan(String username, ChatBotRequest req) {
-    // block() nếu chatBotService.askForPlan trả Mono
-    return chatBotService.askForPlan(req).block();
+  public Mono<WorkoutPlanDto> previewPlan(String username, ChatBotRequest req) {
+    return chatBotService.askForPlan(req);
   }
 
   @Override
@@ -0,0 +1,140 @@
+package com.ufit.server.cache;
+
+import com.ufit.server.dto.response.ChatCacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static com.ufit.server.cache.ChatResponseCache.normalize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatResponseCacheTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+    private static final String STRETCH = normalize("Should I stretch before running in the morning?");
+
+    @Test
+    void normalizesCasePunctuationAndWhitespace() {
+        assertEquals("tăng cơ thế nào", normalize("  Tăng   cơ thế nào?? "));
+        assertEquals(normalize("Tăng cơ thế nào?"), normalize("tăng  cơ, thế nào"));
+        assertEquals("", normalize(null));
+    }
+
+    @Test
+    void exactHitReturnsStoredValue() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0);
+        cache.put(normalize("How do I build muscle?"), "lift", 5_000_000L);
+
+        assertEquals(Optional.of("lift"), cache.get(normalize("how do i build MUSCLE")));
+        assertEquals(Optional.empty(), cache.get(normalize("how do i lose fat")));
+
+        ChatCacheStats stats = cache.stats();
+        assertEquals(1, stats.exactHits());
+        assertEquals(1, stats.misses());
+        assertEquals(5, stats.savedLatencyMs());
+    }
+
+    @Test
+    void nearHitsAreOffWithoutAThreshold() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0);
+        cache.put(STRETCH, "yes", 0);
+
+        assertEquals(Optional.empty(), cache.get(normalize("Should I stretch before running in the mornings?")));
+        assertEquals(0, cache.indexedBands());
+    }
+
+    @Test
+    void nearHitReusesAnswerForSlightRewording() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0.6);
+        cache.put(STRETCH, "yes", 0);
+
+        assertEquals(Optional.of("yes"), cache.get(normalize("should i stretch before running in the mornings")));
+        assertEquals(1, cache.stats().nearHits());
+    }
+
+    @Test
+    void nearHitRequiresTheSameNumbers() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0.5);
+        cache.put(normalize("Give me a plan to train 3 days a week for strength"), "three", 0);
+
+        assertEquals(Optional.empty(), cache.get(normalize("Give me a plan to train 5 days a week for strength")));
+        assertEquals(Optional.of("three"), cache.get(normalize("give me a plan to train 3 days each week for strength")));
+    }
+
+    @Test
+    void nearHitRequiresTheSameNegation() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0.5);
+        cache.put(STRETCH, "yes", 0);
+        cache.put(normalize("Có nên ăn tối sau tám giờ tối không?"), "được", 0);
+
+        assertEquals(Optional.empty(), cache.get(normalize("Should I not stretch before running in the morning?")));
+        assertEquals(Optional.empty(), cache.get(normalize("Shouldn't I stretch before running in the morning?")));
+        assertEquals(Optional.empty(), cache.get(normalize("Có nên ăn tối sau tám giờ tối?")));
+
+        cache.put(normalize("Should I not stretch before running in the morning?"), "no", 0);
+        assertEquals(Optional.of("no"), cache.get(normalize("should i not stretch before running in the mornings")));
+        assertEquals(Optional.of("yes"), cache.get(normalize("should i stretch before running in the mornings")));
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, 1, 0.5);
+        cache.put(STRETCH, "yes", 0);
+
+        Thread.sleep(20);
+
+        assertEquals(Optional.empty(), cache.get(normalize("should i stretch before running in the mornings")));
+        assertEquals(Optional.empty(), cache.get(STRETCH));
+        assertEquals(0, cache.stats().size());
+        assertEquals(0, cache.indexedBands());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryAndItsBands() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 2, HOUR_MS, 0.6);
+        String squat = normalize("What is the best way to learn the barbell squat?");
+        String deadlift = normalize("How often should beginners deadlift each week?");
+        cache.put(STRETCH, "stretch", 0);
+        cache.put(squat, "squat", 0);
+        int twoEntriesBands = cache.indexedBands();
+
+        // Đọc STRETCH để squat thành entry lâu nhất chưa dùng
+        assertEquals(Optional.of("stretch"), cache.get(STRETCH));
+        cache.put(deadlift, "deadlift", 0);
+
+        assertEquals(Optional.empty(), cache.get(squat));
+        assertEquals(Optional.of("stretch"), cache.get(STRETCH));
+        assertEquals(Optional.of("deadlift"), cache.get(deadlift));
+        ChatCacheStats stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.evictions());
+        assertTrue(cache.indexedBands() <= twoEntriesBands);
+
+        cache.clear();
+        assertEquals(0, cache.indexedBands());
+    }
+
+    @Test
+    void replacingAnEntryDropsItsOldBands() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0.6);
+        cache.put(STRETCH, "first", 0);
+        int bands = cache.indexedBands();
+
+        cache.put(STRETCH, "second", 0);
+
+        assertEquals(bands, cache.indexedBands());
+        assertEquals(Optional.of("second"), cache.get(STRETCH));
+    }
+
+    @Test
+    void bypassesAreCountedSeparately() {
+        ChatResponseCache<String> cache = new ChatResponseCache<>("test", 10, HOUR_MS, 0);
+        cache.recordBypass();
+
+        ChatCacheStats stats = cache.stats();
+        assertEquals(1, stats.bypasses());
+        assertEquals(0, stats.misses());
+        assertEquals(0.0, stats.hitRate());
+    }
+}
@@ -0,0 +1,69 @@
+package com.ufit.server.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EtagRegistryTest {
+
+    private static final String RESOURCE = "test:resource";
+
+    private final EtagRegistry registry = new EtagRegistry(new ObjectMapper());
+    private final AtomicInteger loads = new AtomicInteger();
+    private List<String> current = List.of("a", "b");
+
+    private final Supplier<List<String>> loader = () -> {
+        loads.incrementAndGet();
+        return current;
+    };
+
+    @Test
+    void servesStoredBodyAndTagUntilInvalidated() {
+        ResponseEntity<List<String>> first = registry.conditional(RESOURCE, null, loader);
+        ResponseEntity<List<String>> second = registry.conditional(RESOURCE, null, loader);
+        ResponseEntity<List<String>> stale = registry.conditional(RESOURCE, "\"other\"", loader);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals(HttpStatus.OK, stale.getStatusCode());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void matchingTagIsNotModified() {
+        String etag = registry.conditional(RESOURCE, null, loader).getHeaders().getETag();
+
+        ResponseEntity<List<String>> exact = registry.conditional(RESOURCE, etag, loader);
+        ResponseEntity<List<String>> weak = registry.conditional(RESOURCE, "\"x\", W/" + etag, loader);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, exact.getStatusCode());
+        assertNull(exact.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, weak.getStatusCode());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateRebuildsBodyAndTag() {
+        String oldTag = registry.conditional(RESOURCE, null, loader).getHeaders().getETag();
+
+        current = List.of("a", "b", "c");
+        registry.invalidate(RESOURCE);
+        ResponseEntity<List<String>> fresh = registry.conditional(RESOURCE, oldTag, loader);
+
+        assertEquals(HttpStatus.OK, fresh.getStatusCode());
+        assertEquals(current, fresh.getBody());
+        assertNotEquals(oldTag, fresh.getHeaders().getETag());
+        assertEquals(2, loads.get());
+    }
+}
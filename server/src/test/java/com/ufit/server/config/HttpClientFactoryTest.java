@@ -0,0 +1,163 @@
+package com.ufit.server.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.ufit.server.dto.response.HttpPoolStats;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Settings resolution of the named pools and the response timeout against a
+ * slow local stub.
+ */
+class HttpClientFactoryTest {
+
+    private static final long SLOW_DELAY_MS = 1500;
+
+    private HttpServer upstream;
+    private final Map<String, Object> properties = new HashMap<>();
+    private HttpClientFactory factory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(Executors.newFixedThreadPool(4));
+        upstream.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(SLOW_DELAY_MS);
+                respond(exchange, "slow");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        upstream.createContext("/fast", exchange -> respond(exchange, "fast"));
+        upstream.createContext("/large", exchange -> respond(exchange, "x".repeat(4096)));
+        upstream.start();
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        factory = new HttpClientFactory(environment);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.shutdown();
+        upstream.stop(0);
+    }
+
+    @Test
+    void poolSettingsOverrideDefaultsWhichOverrideBuiltIns() {
+        properties.put("http.client.default.max-connections", "20");
+        properties.put("http.client.default.connect-timeout-ms", "3000");
+        properties.put("http.client.openai.max-connections", "100");
+        properties.put("http.client.openai.response-timeout-ms", "120000");
+
+        factory.builder("openai");
+        factory.builder("pubmed");
+
+        HttpPoolStats openai = stats("openai");
+        assertEquals(100, openai.maxConnections());          // http.client.openai.*
+        assertEquals(3000, openai.connectTimeoutMs());        // http.client.default.*
+        assertEquals(120000, openai.responseTimeoutMs());
+        assertEquals(200, openai.maxPendingAcquires());   // mặc định trong code
+
+        HttpPoolStats pubmed = stats("pubmed");
+        assertEquals(20, pubmed.maxConnections());
+        assertEquals(3000, pubmed.connectTimeoutMs());
+        assertEquals(60000, pubmed.responseTimeoutMs());
+        assertEquals(200, pubmed.maxPendingAcquires());
+    }
+
+    @Test
+    void builtInDefaultsApplyWithoutProperties() {
+        factory.builder("plain");
+
+        HttpPoolStats plain = stats("plain");
+        assertEquals(50, plain.maxConnections());
+        assertEquals(200, plain.maxPendingAcquires());
+        assertEquals(5000, plain.connectTimeoutMs());
+        assertEquals(60000, plain.responseTimeoutMs());
+    }
+
+    @Test
+    void responseTimeoutFailsSlowUpstream() {
+        properties.put("http.client.default.response-timeout-ms", "5000");
+        properties.put("http.client.strict.response-timeout-ms", "200");
+
+        StepVerifier.create(get("strict", "/slow"))
+            .expectErrorSatisfies(error -> {
+                assertInstanceOf(WebClientRequestException.class, error);
+                assertInstanceOf(ReadTimeoutException.class, error.getCause());
+            })
+            .verify(Duration.ofMillis(SLOW_DELAY_MS));
+
+        // Cùng pool vẫn dùng được cho upstream trả lời kịp
+        StepVerifier.create(get("strict", "/fast"))
+            .expectNext("fast")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void poolWithoutOverrideUsesDefaultResponseTimeout() {
+        properties.put("http.client.default.response-timeout-ms", "5000");
+
+        StepVerifier.create(get("lenient", "/slow"))
+            .expectNext("slow")
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void maxInMemorySizeFallsBackToDefault() {
+        properties.put("http.client.default.max-in-memory-size", "1024");
+
+        StepVerifier.create(get("capped", "/large"))
+            .expectErrorSatisfies(error -> assertInstanceOf(DataBufferLimitException.class, error.getCause()))
+            .verify(Duration.ofSeconds(5));
+    }
+
+    private Mono<String> get(String pool, String path) {
+        WebClient client = factory.builder(pool)
+            .baseUrl("http://127.0.0.1:" + upstream.getAddress().getPort())
+            .build();
+        return client.get().uri(path).retrieve().bodyToMono(String.class);
+    }
+
+    private HttpPoolStats stats(String pool) {
+        return factory.stats().stream()
+            .filter(stats -> stats.name().equals(pool))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static void respond(HttpExchange exchange, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
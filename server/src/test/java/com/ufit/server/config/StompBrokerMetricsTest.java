@@ -0,0 +1,187 @@
+package com.ufit.server.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Overflow behaviour of the instrumented STOMP channel executors and the
+ * slow-consumer accounting of the session tracker.
+ */
+class StompBrokerMetricsTest {
+
+    private final StompBrokerMetrics metrics = new StompBrokerMetrics();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void fullOutboundQueueDropsOnlyMessageFrames() throws InterruptedException {
+        executor = saturatedExecutor(true);
+
+        assertNull(runOn(StompCommand.MESSAGE), "MESSAGE frame must be dropped");
+        // Frame giao thức không được mất: chạy luôn trên thread gọi
+        assertSame(Thread.currentThread(), runOn(StompCommand.CONNECTED));
+        assertSame(Thread.currentThread(), runOn(StompCommand.RECEIPT));
+        assertSame(Thread.currentThread(), runOn(StompCommand.ERROR));
+
+        assertEquals(1, metrics.stats().outboundDropped());
+        assertEquals(1, metrics.stats().outboundQueueDepth());
+    }
+
+    @Test
+    void outboundFramesAreTimedWhenDelivered() throws InterruptedException {
+        executor = newExecutor();
+        metrics.instrumentOutbound(executor);
+        executor.initialize();
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        executor.execute(frame(StompCommand.MESSAGE, delivered::countDown));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+        assertEquals(1, metrics.stats().framesDelivered());
+        assertEquals(0, metrics.stats().outboundDropped());
+    }
+
+    @Test
+    void fullInboundQueueRunsFrameOnCaller() throws InterruptedException {
+        executor = saturatedExecutor(false);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        executor.execute(frame(StompCommand.SEND, () -> ranOn.set(Thread.currentThread())));
+
+        assertSame(Thread.currentThread(), ranOn.get());
+        assertEquals(1, metrics.stats().inboundOverflow());
+    }
+
+    @Test
+    void notReliableCloseCountsAsSlowOnlyAfterAMessage() throws Exception {
+        WebSocketHandler tracker = metrics.sessionTracker().decorate(mock(WebSocketHandler.class));
+        WebSocketSession idle = session("idle");
+        WebSocketSession slow = session("slow");
+        WebSocketSession normal = session("normal");
+
+        tracker.afterConnectionEstablished(idle);
+        tracker.afterConnectionEstablished(slow);
+        tracker.afterConnectionEstablished(normal);
+        assertEquals(3, metrics.stats().openSessions());
+
+        // Không gửi gì trước time-to-first-message: Spring cũng đóng bằng SESSION_NOT_RELIABLE
+        tracker.afterConnectionClosed(idle, CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, metrics.stats().slowConsumerDisconnects());
+
+        tracker.handleMessage(slow, new TextMessage("CONNECT"));
+        tracker.afterConnectionClosed(slow, CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, metrics.stats().slowConsumerDisconnects());
+
+        tracker.handleMessage(normal, new TextMessage("CONNECT"));
+        tracker.afterConnectionClosed(normal, CloseStatus.NORMAL);
+        assertEquals(1, metrics.stats().slowConsumerDisconnects());
+        assertEquals(0, metrics.stats().openSessions());
+    }
+
+    // Một thread đang bận và hàng đợi (sức chứa 1) đã đầy
+    private ThreadPoolTaskExecutor saturatedExecutor(boolean outbound) throws InterruptedException {
+        ThreadPoolTaskExecutor pool = newExecutor();
+        if (outbound) {
+            metrics.instrumentOutbound(pool);
+        } else {
+            metrics.instrumentInbound(pool);
+        }
+        pool.initialize();
+        CountDownLatch busy = new CountDownLatch(1);
+        pool.execute(() -> {
+            busy.countDown();
+            await(release);
+        });
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        pool.execute(() -> await(release));
+        return pool;
+    }
+
+    private static ThreadPoolTaskExecutor newExecutor() {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(1);
+        pool.setMaxPoolSize(1);
+        pool.setQueueCapacity(1);
+        return pool;
+    }
+
+    // Thread đã chạy frame, hoặc null nếu frame bị bỏ
+    private Thread runOn(StompCommand command) {
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.execute(frame(command, () -> ranOn.set(Thread.currentThread())));
+        return ranOn.get();
+    }
+
+    private static MessageHandlingRunnable frame(StompCommand command, Runnable body) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("s1");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        MessageHandler handler = m -> body.run();
+        return new MessageHandlingRunnable() {
+            @Override
+            public Message<?> getMessage() {
+                return message;
+            }
+
+            @Override
+            public MessageHandler getMessageHandler() {
+                return handler;
+            }
+
+            @Override
+            public void run() {
+                handler.handleMessage(message);
+            }
+        };
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getId()).thenReturn(id);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
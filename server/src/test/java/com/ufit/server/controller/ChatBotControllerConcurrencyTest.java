@@ -0,0 +1,185 @@
+package com.ufit.server.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.ufit.server.config.HttpClientFactory;
+import com.ufit.server.dto.request.ChatBotRequest;
+import com.ufit.server.dto.request.WorkoutPlanDto;
+import com.ufit.server.dto.response.ApiResponse;
+import com.ufit.server.openai.OpenAiGateway;
+import com.ufit.server.service.ChatLogService;
+import com.ufit.server.service.ChatMetricService;
+import com.ufit.server.service.impl.ChatBotServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Load test for the Mono chatbot endpoints against a slow local OpenAI stub.
+ *
+ * Two "request threads" stand in for a tiny servlet pool. Each subscribes to
+ * the controller's Mono the way Spring MVC does and returns. If a request
+ * thread were held for the whole OpenAI call, 40 calls would take
+ * 40 / 2 * {@value #UPSTREAM_DELAY_MS} ms; here the threads are free again
+ * before the stub answers and all calls are in flight upstream at once.
+ */
+class ChatBotControllerConcurrencyTest {
+
+    private static final long UPSTREAM_DELAY_MS = 500;
+    private static final int REQUEST_THREADS = 2;
+    private static final int CALLS = 40;
+    private static final String PLAN_JSON = "{\"title\":\"Plan\",\"details\":[\"Day 1: squats\"]}";
+
+    private HttpServer upstream;
+    private HttpClientFactory httpClientFactory;
+    private ExecutorService requestThreads;
+    private ChatBotController controller;
+
+    private final AtomicInteger upstreamInFlight = new AtomicInteger();
+    private final AtomicInteger upstreamPeak = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String completion = objectMapper.writeValueAsString(
+            Map.of("choices", List.of(Map.of(
+                "message", Map.of("role", "assistant", "content", PLAN_JSON)))));
+
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(Executors.newFixedThreadPool(CALLS * 2));
+        upstream.createContext("/v1/chat/completions", exchange -> {
+            upstreamPeak.accumulateAndGet(upstreamInFlight.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(UPSTREAM_DELAY_MS);
+                byte[] body = completion.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                upstreamInFlight.decrementAndGet();
+            }
+        });
+        upstream.start();
+
+        httpClientFactory = new HttpClientFactory(new StandardEnvironment());
+        String url = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/v1/chat/completions";
+        OpenAiGateway gateway = new OpenAiGateway("test-key", url, httpClientFactory, objectMapper,
+            1000, 1000, 1000, 1000, 10000, CALLS * 2, CALLS * 2, 10000);
+
+        ChatBotServiceImpl service = new ChatBotServiceImpl(gateway, 1000, 3_600_000, 0.85, 500, 86_400_000, 5, 5);
+        inject(service, "chatMetricService", mock(ChatMetricService.class));
+        inject(service, "chatLogService", mock(ChatLogService.class));
+        inject(service, "objectMapper", objectMapper);
+
+        controller = new ChatBotController();
+        inject(controller, "chatBotService", service);
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+
+        // Khởi động Netty/WebClient trước, để thời gian đo chỉ là thời gian dispatch
+        controller.ask(new ChatBotRequest("warm-up", null, null, null, false, true), null)
+            .block(Duration.ofSeconds(10));
+        upstreamPeak.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestThreads.shutdownNow();
+        httpClientFactory.shutdown();
+        upstream.stop(0);
+    }
+
+    @Test
+    void askReleasesRequestThreadsWhileOpenAiIsPending() throws Exception {
+        // noCache và câu hỏi khác nhau: không trúng cache, không gộp request
+        List<Mono<ResponseEntity<ApiResponse<String>>>> responses = dispatch(i ->
+            controller.ask(new ChatBotRequest("question " + i, null, null, null, false, true), null));
+
+        StepVerifier.create(Flux.merge(responses))
+            .thenConsumeWhile(response -> {
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                assertEquals(PLAN_JSON, response.getBody().getData());
+                return true;
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+        assertEquals(CALLS, upstreamPeak.get());
+    }
+
+    @Test
+    void planReleasesRequestThreadsWhileOpenAiIsPending() throws Exception {
+        List<Mono<ResponseEntity<ApiResponse<WorkoutPlanDto>>>> responses = dispatch(i ->
+            controller.getPlan(new ChatBotRequest(null, 150.0 + i * 5, 70.0, "strength", false, true), null));
+
+        StepVerifier.create(Flux.merge(responses))
+            .thenConsumeWhile(response -> {
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                assertEquals("Plan", response.getBody().getData().title());
+                return true;
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+        assertEquals(CALLS, upstreamPeak.get());
+    }
+
+    /**
+     * Subscribe to every call from the small request pool, as Spring MVC does
+     * for a Mono return value, and check the pool was free long before the
+     * first upstream response could arrive.
+     */
+    private <T> List<Mono<T>> dispatch(Function<Integer, Mono<T>> call) throws Exception {
+        long start = System.nanoTime();
+        List<Future<Mono<T>>> submitted = new ArrayList<>();
+        for (int i = 0; i < CALLS; i++) {
+            int index = i;
+            submitted.add(requestThreads.submit(() -> {
+                Mono<T> response = call.apply(index).cache();
+                response.subscribe(value -> { }, error -> { });
+                return response;
+            }));
+        }
+        List<Mono<T>> responses = new ArrayList<>();
+        for (Future<Mono<T>> future : submitted) {
+            responses.add(future.get(5, TimeUnit.SECONDS));
+        }
+        long dispatchMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(dispatchMs < UPSTREAM_DELAY_MS,
+            "request threads were held for " + dispatchMs + " ms while OpenAI was pending");
+        return responses;
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
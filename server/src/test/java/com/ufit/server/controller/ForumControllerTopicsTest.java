@@ -0,0 +1,167 @@
+package com.ufit.server.controller;
+
+import com.ufit.server.dto.response.ApiResponse;
+import com.ufit.server.dto.response.TopicResponse;
+import com.ufit.server.entity.Category;
+import com.ufit.server.entity.ForumPost;
+import com.ufit.server.entity.ForumTopic;
+import com.ufit.server.entity.ForumVote;
+import com.ufit.server.repository.ForumTopicRepository;
+import jakarta.persistence.EntityManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regression test for the topic list: GET /api/forum/topics must load topics,
+ * categories and vote totals in a single statement, however many topics exist.
+ */
+class ForumControllerTopicsTest {
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private ForumController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:forum;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        DatasourceConnectionProviderImpl connections = new DatasourceConnectionProviderImpl();
+        connections.setDataSource(dataSource);
+        Configuration configuration = new Configuration();
+        configuration.getProperties().put(AvailableSettings.CONNECTION_PROVIDER, connections);
+        sessionFactory = configuration
+            .addAnnotatedClass(Category.class)
+            .addAnnotatedClass(ForumTopic.class)
+            .addAnnotatedClass(ForumPost.class)
+            .addAnnotatedClass(ForumVote.class)
+            // Đặt tên cột giống Spring Boot (createdAt -> created_at)
+            .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+            .setProperty(AvailableSettings.LOG_SESSION_METRICS, "false")
+            .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+
+        ForumTopicRepository topicRepo = new JpaRepositoryFactory(entityManager)
+            .getRepository(ForumTopicRepository.class);
+        controller = new ForumController();
+        Field field = ForumController.class.getDeclaredField("topicRepo");
+        field.setAccessible(true);
+        field.set(controller, topicRepo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void getTopicsRunsOneStatementRegardlessOfTopicCount() {
+        seed(5);
+        assertEquals(5, topicsWithStatementCount(1).size());
+
+        seed(40);
+        assertEquals(45, topicsWithStatementCount(1).size());
+    }
+
+    @Test
+    void getTopicsCapsTheNumberOfRows() {
+        seed(120);
+        assertEquals(100, topicsWithStatementCount(1).size());
+    }
+
+    @Test
+    void getTopicsReturnsVoteTotalsPerTopic() {
+        Map<Long, int[]> votesByPost = seed(12);
+
+        List<TopicResponse> topics = topicsWithStatementCount(1);
+
+        assertEquals(12, topics.size());
+        int withVotes = 0;
+        for (TopicResponse topic : topics) {
+            // Như trước: vote của topic là vote trên bài viết có id bằng id topic
+            int[] expected = votesByPost.getOrDefault(topic.id(), new int[2]);
+            assertEquals(expected[0], topic.upvotes(), "upvotes of " + topic.title());
+            assertEquals(expected[1], topic.downvotes(), "downvotes of " + topic.title());
+            String index = topic.title().substring("topic ".length());
+            assertEquals("author" + index, topic.author());
+            assertTrue(topic.category().name().endsWith("-" + index));
+            assertNull(topic.posts());
+            if (expected[0] + expected[1] > 0) {
+                withVotes++;
+            }
+        }
+        assertTrue(withVotes > 6, "most topics should carry votes");
+    }
+
+    private List<TopicResponse> topicsWithStatementCount(long expectedStatements) {
+        entityManager.clear();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        ResponseEntity<ApiResponse<List<TopicResponse>>> response = controller.getTopics(100);
+
+        assertEquals("SUCCESS", response.getBody().getResult());
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount());
+        return response.getBody().getData();
+    }
+
+    // Mỗi topic có category riêng, 1-3 bài viết và số vote khác nhau trên mỗi bài;
+    // trả về số {upvote, downvote} theo id bài viết
+    private Map<Long, int[]> seed(int topics) {
+        Map<Long, int[]> votesByPost = new HashMap<>();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < topics; i++) {
+            Category category = new Category();
+            category.setName("category-" + System.nanoTime() + "-" + i);
+            entityManager.persist(category);
+
+            ForumTopic topic = new ForumTopic();
+            topic.setTitle("topic " + i);
+            topic.setAuthor("author" + i);
+            topic.setCategory(category);
+            entityManager.persist(topic);
+
+            for (int p = 0; p < 1 + i % 3; p++) {
+                ForumPost post = new ForumPost();
+                post.setTopic(topic);
+                post.setAuthor(topic.getAuthor());
+                entityManager.persist(post);
+
+                int[] counts = votesByPost.computeIfAbsent(post.getId(), id -> new int[2]);
+                int voters = 1 + (i + p) % 5;
+                for (int v = 0; v < voters; v++) {
+                    boolean upvote = v % 3 != 0;
+                    ForumVote vote = new ForumVote();
+                    vote.setPost(post);
+                    vote.setUsername("voter" + v);
+                    vote.setUpvote(upvote);
+                    entityManager.persist(vote);
+                    counts[upvote ? 0 : 1]++;
+                }
+            }
+        }
+        entityManager.getTransaction().commit();
+        return votesByPost;
+    }
+}
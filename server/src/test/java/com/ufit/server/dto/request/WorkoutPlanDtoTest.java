@@ -0,0 +1,109 @@
+package com.ufit.server.dto.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkoutPlanDtoTest {
+
+    @Test
+    void parsesPlainObject() {
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson(
+            "{\"title\":\"Strength\",\"details\":[\"Day 1: squats\",\"Day 2: rest\"]}");
+
+        assertEquals("Strength", plan.title());
+        assertEquals(List.of("Day 1: squats", "Day 2: rest"), plan.details());
+    }
+
+    @Test
+    void parsesReplyWrappedInCodeFence() {
+        String reply = """
+            Here is your plan:
+            ```json
+            {
+              "title": "Cut",
+              "details": ["Day 1: run 5 km", "Day 2: \\"HIIT\\" {20 min}"]
+            }
+            ```
+            Good luck!""";
+
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson(reply);
+
+        assertEquals("Cut", plan.title());
+        assertEquals(List.of("Day 1: run 5 km", "Day 2: \"HIIT\" {20 min}"), plan.details());
+    }
+
+    @Test
+    void skipsNestedUnknownFields() {
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson(
+            "{\"meta\":{\"level\":[1,{\"title\":\"inner\"}]},\"title\":\"Bulk\","
+                + "\"notes\":[\"x\"],\"details\":[\"Day 1: bench\"],\"version\":2}");
+
+        assertEquals("Bulk", plan.title());
+        assertEquals(List.of("Day 1: bench"), plan.details());
+    }
+
+    @Test
+    void skipsNonStringDetailEntries() {
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson(
+            "{\"title\":\"Mixed\",\"details\":[\"Day 1: row\",3,null,{\"day\":2},[\"Day 9\"],true,\"Day 3: pull\"]}");
+
+        assertEquals(List.of("Day 1: row", "Day 3: pull"), plan.details());
+    }
+
+    @Test
+    void stopsAtMatchingBrace() {
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson(
+            "{\"title\":\"First\",\"details\":[]} and then {\"title\":\"Second\"} trailing");
+
+        assertEquals("First", plan.title());
+        assertTrue(plan.details().isEmpty());
+    }
+
+    @Test
+    void wrongTypesAndMissingFieldsLeaveDefaults() {
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson("{\"title\":42,\"details\":\"Day 1\"}");
+
+        assertNull(plan.title());
+        assertTrue(plan.details().isEmpty());
+        assertNull(WorkoutPlanDto.fromJson("{}").title());
+    }
+
+    @Test
+    void detailsAreUnmodifiable() {
+        WorkoutPlanDto plan = WorkoutPlanDto.fromJson("{\"title\":\"T\",\"details\":[\"a\"]}");
+
+        assertThrows(UnsupportedOperationException.class, () -> plan.details().add("b"));
+    }
+
+    @Test
+    void roundTripsThroughToJson() {
+        WorkoutPlanDto plan = new WorkoutPlanDto("Round", List.of("Day 1: \"go\"", "Day 2: rest"));
+
+        assertEquals(plan, WorkoutPlanDto.fromJson(plan.toJson()));
+    }
+
+    @Test
+    void rejectsTextWithoutObject() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> WorkoutPlanDto.fromJson("Sorry, I cannot help with that."));
+
+        assertTrue(e.getMessage().contains("no JSON object found"));
+        assertThrows(RuntimeException.class, () -> WorkoutPlanDto.fromJson(null));
+    }
+
+    @Test
+    void rejectsMalformedOrTruncatedObject() {
+        assertThrows(RuntimeException.class,
+            () -> WorkoutPlanDto.fromJson("{\"title\":\"Cut\",\"details\":[\"Day 1"));
+        assertThrows(RuntimeException.class,
+            () -> WorkoutPlanDto.fromJson("{\"title\":\"Cut\",\"details\":[\"Day 1\"]"));
+        assertThrows(RuntimeException.class,
+            () -> WorkoutPlanDto.fromJson("{title: Cut}"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ufit.server.openai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Decoding of recorded OpenAI payloads into {@link ChatCompletion}.
+ */
+class ChatCompletionTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Response thật của /v1/chat/completions, rút gọn nội dung
+    private static final String COMPLETION = """
+        {
+          "id": "chatcmpl-8abc",
+          "object": "chat.completion",
+          "created": 1700000000,
+          "model": "gpt-3.5-turbo-0125",
+          "choices": [
+            {
+              "index": 0,
+              "message": {"role": "assistant", "content": "Do 3 sets of squats.", "tool_calls": null},
+              "logprobs": null,
+              "finish_reason": "stop"
+            }
+          ],
+          "usage": {"prompt_tokens": 56, "completion_tokens": 7, "total_tokens": 63},
+          "system_fingerprint": "fp_3bc1b5746c"
+        }""";
+
+    private static final String FIRST_CHUNK = """
+        {"id":"chatcmpl-8abc","object":"chat.completion.chunk","created":1700000000,"model":"gpt-3.5-turbo-0125",\
+        "system_fingerprint":null,"choices":[{"index":0,"delta":{"role":"assistant","content":""},"logprobs":null,\
+        "finish_reason":null}]}""";
+
+    private static final String CONTENT_CHUNK = """
+        {"id":"chatcmpl-8abc","object":"chat.completion.chunk","created":1700000000,"model":"gpt-3.5-turbo-0125",\
+        "system_fingerprint":null,"choices":[{"index":0,"delta":{"content":" squats"},"logprobs":null,\
+        "finish_reason":null}]}""";
+
+    private static final String LAST_CHUNK = """
+        {"id":"chatcmpl-8abc","object":"chat.completion.chunk","created":1700000000,"model":"gpt-3.5-turbo-0125",\
+        "system_fingerprint":null,"choices":[{"index":0,"delta":{},"logprobs":null,"finish_reason":"stop"}]}""";
+
+    @Test
+    void decodesCompletionIgnoringUnknownFields() throws Exception {
+        ChatCompletion completion = MAPPER.readValue(COMPLETION, ChatCompletion.class);
+
+        assertEquals("Do 3 sets of squats.", completion.firstContent());
+        assertNull(completion.firstDeltaContent());
+    }
+
+    @Test
+    void decodesStreamedChunks() throws Exception {
+        assertEquals("", MAPPER.readValue(FIRST_CHUNK, ChatCompletion.class).firstDeltaContent());
+        assertEquals(" squats", MAPPER.readValue(CONTENT_CHUNK, ChatCompletion.class).firstDeltaContent());
+        assertNull(MAPPER.readValue(LAST_CHUNK, ChatCompletion.class).firstDeltaContent());
+        assertNull(MAPPER.readValue(CONTENT_CHUNK, ChatCompletion.class).firstContent());
+    }
+
+    @Test
+    void missingOrEmptyChoicesGiveNull() throws Exception {
+        assertNull(MAPPER.readValue("{}", ChatCompletion.class).firstContent());
+        assertNull(MAPPER.readValue("{\"choices\":[]}", ChatCompletion.class).firstContent());
+        assertNull(MAPPER.readValue("{\"choices\":[{\"index\":0}]}", ChatCompletion.class).firstContent());
+    }
+}
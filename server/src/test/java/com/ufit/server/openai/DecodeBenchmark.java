@@ -0,0 +1,92 @@
+package com.ufit.server.openai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufit.server.dto.request.WorkoutPlanDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of recorded OpenAI payloads with the typed records and the
+ * streaming plan parser, next to the Map / JsonNode / substring decoding
+ * they replaced. Run with the GC profiler and compare
+ * {@code gc.alloc.rate.norm} (bytes allocated per response):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) org.openjdk.jmh.Main DecodeBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+
+    private static final String COMPLETION = "{\"id\":\"chatcmpl-8abc\",\"object\":\"chat.completion\","
+        + "\"created\":1700000000,\"model\":\"gpt-3.5-turbo-0125\",\"choices\":[{\"index\":0,"
+        + "\"message\":{\"role\":\"assistant\",\"content\":\"Do 3 sets of 10 squats, then 3 sets of lunges.\"},"
+        + "\"logprobs\":null,\"finish_reason\":\"stop\"}],"
+        + "\"usage\":{\"prompt_tokens\":56,\"completion_tokens\":17,\"total_tokens\":73},"
+        + "\"system_fingerprint\":\"fp_3bc1b5746c\"}";
+
+    private static final String CHUNK = "{\"id\":\"chatcmpl-8abc\",\"object\":\"chat.completion.chunk\","
+        + "\"created\":1700000000,\"model\":\"gpt-3.5-turbo-0125\",\"system_fingerprint\":null,"
+        + "\"choices\":[{\"index\":0,\"delta\":{\"content\":\" squats\"},\"logprobs\":null,\"finish_reason\":null}]}";
+
+    private static final String PLAN_REPLY = "Here is your plan:\n```json\n{\"title\":\"Cut\",\"details\":["
+        + "\"Day 1: run 5 km\",\"Day 2: squats\",\"Day 3: rest\",\"Day 4: bench\",\"Day 5: rows\"]}\n```\n";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public String typedCompletion() throws Exception {
+        return mapper.readValue(COMPLETION, ChatCompletion.class).firstContent();
+    }
+
+    /** Previous decode: raw Map walked with casts */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object mapCompletion() throws Exception {
+        Map<String, Object> body = mapper.readValue(COMPLETION, Map.class);
+        Map<String, Object> choice = ((List<Map<String, Object>>) body.get("choices")).get(0);
+        return ((Map<String, Object>) choice.get("message")).get("content");
+    }
+
+    @Benchmark
+    public String typedChunk() throws Exception {
+        return mapper.readValue(CHUNK, ChatCompletion.class).firstDeltaContent();
+    }
+
+    /** Previous decode: JsonNode tree per chunk */
+    @Benchmark
+    public String treeChunk() throws Exception {
+        JsonNode node = mapper.readTree(CHUNK);
+        return node.path("choices").path(0).path("delta").path("content").asText();
+    }
+
+    @Benchmark
+    public WorkoutPlanDto streamingPlan() {
+        return WorkoutPlanDto.fromJson(PLAN_REPLY);
+    }
+
+    /** Previous decode: cut the object out as a substring, then parse it again */
+    @Benchmark
+    public WorkoutPlanDto substringPlan() throws Exception {
+        String trimmed = PLAN_REPLY.trim();
+        String json = trimmed.substring(trimmed.indexOf('{'), trimmed.lastIndexOf('}') + 1);
+        return mapper.readValue(json, WorkoutPlanDto.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.ufit.server.openai;
+
+import com.ufit.server.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FairConcurrencyLimiterTest {
+
+    private final FairConcurrencyLimiter limiter = new FairConcurrencyLimiter(1, 10, Duration.ofSeconds(5));
+
+    @Test
+    void grantsImmediatelyWhileSlotsAreFree() {
+        FairConcurrencyLimiter wide = new FairConcurrencyLimiter(2, 0, Duration.ofSeconds(5));
+
+        FairConcurrencyLimiter.Permit first = wide.acquire("alice").block();
+        FairConcurrencyLimiter.Permit second = wide.acquire("alice").block();
+
+        assertEquals(2, wide.getActive());
+        first.release();
+        first.release();
+        assertEquals(1, wide.getActive());
+        second.release();
+        assertEquals(0, wide.getActive());
+        assertEquals(2, wide.getAcquired());
+    }
+
+    @Test
+    void handsFreedSlotsRoundRobinAcrossUsers() {
+        FairConcurrencyLimiter.Permit held = limiter.acquire("holder").block();
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<FairConcurrencyLimiter.Permit> permits = new CopyOnWriteArrayList<>();
+        // alice xếp 3 request trước, bob 2 request sau
+        for (String user : List.of("alice-1", "alice-2", "alice-3", "bob-1", "bob-2")) {
+            limiter.acquire(user.substring(0, user.indexOf('-'))).subscribe(permit -> {
+                order.add(user);
+                permits.add(permit);
+            });
+        }
+        assertEquals(5, limiter.getQueued());
+
+        held.release();
+        for (int i = 1; i < 5; i++) {
+            permits.get(i - 1).release();
+        }
+
+        assertEquals(List.of("alice-1", "bob-1", "alice-2", "bob-2", "alice-3"), order);
+        assertEquals(1, limiter.getActive());
+        assertEquals(0, limiter.getQueued());
+        permits.get(4).release();
+        assertEquals(0, limiter.getActive());
+    }
+
+    @Test
+    void cancelWhileQueuedLeavesTheQueue() {
+        FairConcurrencyLimiter.Permit held = limiter.acquire("holder").block();
+        Disposable waiting = limiter.acquire("alice").subscribe();
+        assertEquals(1, limiter.getQueued());
+
+        waiting.dispose();
+
+        assertEquals(0, limiter.getQueued());
+        held.release();
+        assertEquals(0, limiter.getActive());
+    }
+
+    @Test
+    void slotGrantedToACancelledSubscriberIsPassedOn() {
+        FairConcurrencyLimiter.Permit held = limiter.acquire("holder").block();
+        AtomicReference<FairConcurrencyLimiter.Permit> alicePermit = new AtomicReference<>();
+        AtomicReference<FairConcurrencyLimiter.Permit> bobPermit = new AtomicReference<>();
+        // alice chưa request: slot được giao nhưng permit chưa tới tay
+        BaseSubscriber<FairConcurrencyLimiter.Permit> alice = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+
+            @Override
+            protected void hookOnNext(FairConcurrencyLimiter.Permit permit) {
+                alicePermit.set(permit);
+            }
+        };
+        limiter.acquire("alice").subscribe(alice);
+        limiter.acquire("bob").subscribe(bobPermit::set);
+
+        held.release();
+
+        assertNull(alicePermit.get());
+        assertNull(bobPermit.get());
+        assertEquals(1, limiter.getActive());
+
+        alice.cancel();
+
+        assertNull(alicePermit.get());
+        assertNotNull(bobPermit.get());
+        assertEquals(1, limiter.getActive());
+        assertEquals(0, limiter.getQueued());
+        bobPermit.get().release();
+        assertEquals(0, limiter.getActive());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        FairConcurrencyLimiter tight = new FairConcurrencyLimiter(1, 1, Duration.ofSeconds(5));
+        tight.acquire("holder").block();
+        tight.acquire("alice").subscribe();
+
+        StepVerifier.create(tight.acquire("bob"))
+            .expectErrorSatisfies(e -> {
+                RateLimitExceededException limited = assertInstanceOf(RateLimitExceededException.class, e);
+                assertEquals(1, limited.getRetryAfterSeconds());
+            })
+            .verify(Duration.ofSeconds(1));
+        assertEquals(1, tight.getRejected());
+        assertEquals(1, tight.getQueued());
+    }
+
+    @Test
+    void timesOutWithRetryAfterOfTheQueueTimeout() {
+        FairConcurrencyLimiter slow = new FairConcurrencyLimiter(1, 5, Duration.ofMillis(2500));
+        FairConcurrencyLimiter.Permit held = slow.acquire("holder").block();
+
+        StepVerifier.withVirtualTime(() -> slow.acquire("alice"))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(2500))
+            .expectErrorSatisfies(e -> {
+                RateLimitExceededException limited = assertInstanceOf(RateLimitExceededException.class, e);
+                assertEquals(3, limited.getRetryAfterSeconds());
+            })
+            .verify(Duration.ofSeconds(1));
+
+        assertEquals(1, slow.getTimedOut());
+        assertEquals(0, slow.getQueued());
+        held.release();
+        assertEquals(0, slow.getActive());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new FairConcurrencyLimiter(0, 1, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new FairConcurrencyLimiter(1, -1, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ufit.server.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void startsFullAndReportsWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(2, 1);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+
+        // Rỗng, nạp 1 token/giây: chờ gần đủ 1 giây
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900) && wait <= TimeUnit.SECONDS.toNanos(1),
+            "wait " + wait + " ns");
+        assertEquals(1, TokenBucket.retryAfterSeconds(wait));
+    }
+
+    @Test
+    void refillsOverTimeUpToCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 20);
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+
+        Thread.sleep(60);
+
+        assertEquals(0, bucket.tryAcquire());
+        Thread.sleep(200);
+        assertEquals(1.0, bucket.available());
+    }
+
+    @Test
+    void rejectedCallsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(1, 0.5);
+        bucket.tryAcquire();
+
+        long first = bucket.tryAcquire();
+        long second = bucket.tryAcquire();
+
+        // Lần sau không bị phạt thêm: vẫn chờ cùng một token
+        assertTrue(second <= first, first + " then " + second);
+        assertEquals(2, TokenBucket.retryAfterSeconds(second));
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, TokenBucket.retryAfterSeconds(1));
+        assertEquals(1, TokenBucket.retryAfterSeconds(TimeUnit.MILLISECONDS.toNanos(999)));
+        assertEquals(1, TokenBucket.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(2, TokenBucket.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+        assertEquals(60, TokenBucket.retryAfterSeconds(TimeUnit.SECONDS.toNanos(60)));
+        assertEquals(1, TokenBucket.retryAfterSeconds(0));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0.5, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ufit.server.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class VietnameseAnalyzerTest {
+
+    private static final String NFC = Normalizer.normalize("Sức khỏe Đường huyết", Normalizer.Form.NFC);
+    private static final String NFD = Normalizer.normalize("Sức khỏe Đường huyết", Normalizer.Form.NFD);
+
+    @Test
+    void foldsPrecomposedTextToAscii() {
+        assertEquals("suc khoe duong huyet", VietnameseAnalyzer.fold(NFC));
+        assertEquals(List.of("suc", "khoe", "duong", "huyet", "suc_khoe", "khoe_duong", "duong_huyet"),
+            VietnameseAnalyzer.terms(NFC));
+    }
+
+    @Test
+    void decomposedTextGivesTheSameTerms() {
+        assertNotEquals(NFC.length(), NFD.length());
+
+        assertEquals(VietnameseAnalyzer.terms(NFC), VietnameseAnalyzer.terms(NFD));
+    }
+
+    @Test
+    void decomposedTokensSpanTheirCombiningMarks() {
+        List<VietnameseAnalyzer.Token> tokens = VietnameseAnalyzer.tokenize(NFD);
+
+        assertEquals(4, tokens.size());
+        for (VietnameseAnalyzer.Token token : tokens) {
+            String original = NFD.substring(token.start(), token.end());
+            assertEquals(token.term(), VietnameseAnalyzer.fold(
+                Normalizer.normalize(original, Normalizer.Form.NFC)));
+        }
+        assertEquals(NFD.length(), tokens.get(3).end());
+    }
+
+    @Test
+    void precomposedOffsetsMatchTheOriginal() {
+        List<VietnameseAnalyzer.Token> tokens = VietnameseAnalyzer.tokenize(NFC);
+
+        assertEquals(new VietnameseAnalyzer.Token("suc", 0, 3), tokens.get(0));
+        assertEquals(new VietnameseAnalyzer.Token("khoe", 4, 8), tokens.get(1));
+    }
+
+    @Test
+    void strayMarkDoesNotStartAToken() {
+        assertEquals(List.of("a", "b"),
+            VietnameseAnalyzer.tokenize("a \u0301b").stream().map(VietnameseAnalyzer.Token::term).toList());
+    }
+
+    @Test
+    void highlightsDecomposedWordsWhole() {
+        VietnameseAnalyzer.Token khoe = VietnameseAnalyzer.tokenize(NFD).get(1);
+        String word = NFD.substring(khoe.start(), khoe.end());
+
+        assertEquals(Normalizer.normalize("khỏe", Normalizer.Form.NFD), word);
+        assertEquals(NFD.replace(word, "<mark>" + word + "</mark>"),
+            SnippetHighlighter.highlight(NFD, Set.of("khoe")));
+    }
+}
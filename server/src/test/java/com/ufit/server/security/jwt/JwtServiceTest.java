@@ -0,0 +1,163 @@
+package com.ufit.server.security.jwt;
+
+import com.ufit.server.entity.User;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The filter verifies every request's bearer token through {@link JwtService#verify}.
+ * These tests pin that verification reuses the parser built at startup and that a
+ * repeated token is answered from the verify cache without parsing it again.
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtService = new JwtService();
+        set("jwtSecret", SECRET);
+        set("jwtExpirationMinutes", 60L);
+        set("refreshExpirationDays", 14L);
+        set("verifyCacheMaxEntries", 2);
+        jwtService.init();
+
+        // Bọc parser đã dựng sẵn để đếm số lần parse thật sự
+        parser = spy(get("parser", JwtParser.class));
+        set("parser", parser);
+
+        user = new User();
+        user.setUsername("alice");
+    }
+
+    @Test
+    void verifyUsesPrebuiltParser() {
+        String token = jwtService.issueAccessToken(user).token();
+
+        try (MockedStatic<Jwts> jwts = mockStatic(Jwts.class, CALLS_REAL_METHODS)) {
+            Optional<VerifiedToken> verified = jwtService.verify(token);
+
+            assertTrue(verified.isPresent());
+            assertEquals("alice", verified.get().username());
+            assertEquals("ROLE_USER", verified.get().authorities().get(0).getAuthority());
+            jwts.verify(Jwts::parserBuilder, never());
+        }
+        verify(parser, times(1)).parseClaimsJws(token);
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = jwtService.issueAccessToken(user).token();
+
+        VerifiedToken first = jwtService.verify(token).orElseThrow();
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, jwtService.verify(token).orElseThrow());
+        }
+        verify(parser, times(1)).parseClaimsJws(token);
+    }
+
+    @Test
+    void cacheIsBoundedAndEvictedTokensAreParsedAgain() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tokens.add(jwtService.issueAccessToken(withName("user" + i)).token());
+        }
+
+        tokens.forEach(jwtService::verify);
+        // Giới hạn 2 entry: không bao giờ giữ quá giới hạn
+        assertTrue(jwtService.verifyCacheSize() <= 2, "size " + jwtService.verifyCacheSize());
+
+        tokens.forEach(token -> assertTrue(jwtService.verify(token).isPresent()));
+        int parses = 0;
+        for (String token : tokens) {
+            parses += mockingDetails(parser).getInvocations().stream()
+                .filter(call -> call.getArguments().length == 1 && token.equals(call.getArguments()[0]))
+                .count();
+        }
+        // Lượt thứ hai chỉ có tối đa 2 token còn trong cache
+        assertTrue(parses >= 8, "parses " + parses);
+        assertTrue(jwtService.verifyCacheSize() <= 2);
+    }
+
+    @Test
+    void concurrentVerificationAgreesWithTheCache() throws Exception {
+        String token = jwtService.issueAccessToken(user).token();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                results.add(pool.submit(() -> jwtService.verify(token).orElseThrow().username()));
+            }
+            for (Future<String> result : results) {
+                assertEquals("alice", result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, jwtService.verifyCacheSize());
+    }
+
+    @Test
+    void tokenTypesAreNotInterchangeable() {
+        String access = jwtService.issueAccessToken(user).token();
+        String refresh = jwtService.issueRefreshToken(user).token();
+
+        assertTrue(jwtService.verify(refresh).isEmpty());
+        assertTrue(jwtService.verifyRefreshToken(access).isEmpty());
+        assertTrue(jwtService.verifyRefreshToken(refresh).isPresent());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedAndNotCached() {
+        String token = jwtService.issueAccessToken(user).token();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        verify(parser, times(2)).parseClaimsJws(tampered);
+    }
+
+    private User withName(String username) {
+        User other = new User();
+        other.setUsername(username);
+        return other;
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+
+    private <T> T get(String name, Class<T> type) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return type.cast(field.get(jwtService));
+    }
+}
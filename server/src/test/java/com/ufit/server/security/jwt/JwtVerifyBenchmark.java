@@ -0,0 +1,98 @@
+package com.ufit.server.security.jwt;
+
+import com.ufit.server.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares bearer token verification in JwtAuthenticationFilter before and
+ * after the prebuilt parser and verify cache: the old path rebuilt the parser
+ * and HMAC key and parsed the token three times per request.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) org.openjdk.jmh.Main JwtVerifyBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private JwtService jwtService;
+    private JwtParser prebuiltParser;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtService = new JwtService();
+        set("jwtSecret", SECRET);
+        set("jwtExpirationMinutes", 60L);
+        set("refreshExpirationDays", 14L);
+        set("verifyCacheMaxEntries", 10_000);
+        jwtService.init();
+        prebuiltParser = Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .build();
+
+        User user = new User();
+        user.setUsername("alice");
+        token = jwtService.issueAccessToken(user).token();
+    }
+
+    /** isTokenValid, extractUsername and the roles lookup, each with a fresh parser */
+    @Benchmark
+    public void legacyThreeParses(Blackhole blackhole) {
+        for (int i = 0; i < 3; i++) {
+            Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+            blackhole.consume(claims.getSubject());
+        }
+    }
+
+    /** One parse with the parser built at startup, as on a verify cache miss */
+    @Benchmark
+    public String prebuiltParserSingleParse() {
+        return prebuiltParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    /** Repeat request answered from the verify cache */
+    @Benchmark
+    public VerifiedToken cachedVerify() {
+        return jwtService.verify(token).orElseThrow();
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ufit.server.security.password;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void readsCostFromEncodedHash() {
+        assertEquals(4, AdaptiveBCryptPasswordEncoder.costOf(new BCryptPasswordEncoder(4).encode("secret")));
+        assertEquals(12, AdaptiveBCryptPasswordEncoder.costOf("$2a$12$abcdefghijklmnopqrstuv"));
+        assertEquals(10, AdaptiveBCryptPasswordEncoder.costOf("$2b$10$abcdefghijklmnopqrstuv"));
+    }
+
+    @Test
+    void malformedHashHasNoCost() {
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf(null));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf(""));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("$2a$"));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("plaintext"));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("$2a$xy$abcdefghijklmnopqrstuv"));
+    }
+
+    @Test
+    void upgradesOnlyWeakerHashes() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(0, 5, 5);
+        assertEquals(5, encoder.getCost());
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        // Node khác hiệu chỉnh cost cao hơn: không hạ cấp hash
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void matchesHashesOfAnyCost() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(0, 4, 4);
+
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.matches("wrong", encoder.encode("secret")));
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(Long.MAX_VALUE / 4, 4, 6);
+        assertEquals(6, encoder.getCost());
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveBCryptPasswordEncoder(100, 3, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveBCryptPasswordEncoder(100, 10, 8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ufit.server.security.password;
+
+import com.ufit.server.dto.response.PasswordHashingStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor executor =
+        new PasswordHashingExecutor(new AdaptiveBCryptPasswordEncoder(0, 4, 4), 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsWorkOnceTheQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Một luồng đang bận, một việc nằm trong hàng đợi: việc thứ ba phải bị từ chối
+        CompletableFuture<String> busy = executor.submit(() -> {
+            running.countDown();
+            await(release);
+            return "busy";
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = executor.submit(() -> "queued");
+        CompletableFuture<String> overflow = executor.submit(() -> "overflow");
+
+        assertTrue(overflow.isCompletedExceptionally());
+        ExecutionException failure = assertThrows(ExecutionException.class, overflow::get);
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+
+        release.countDown();
+        assertEquals("busy", busy.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+
+        PasswordHashingStats stats = executor.stats();
+        assertEquals(1, stats.rejected());
+        assertEquals(1, stats.queueCapacity());
+    }
+
+    @Test
+    void acceptsWorkAgainAfterTheQueueDrains() throws Exception {
+        assertEquals("ok", executor.submit(() -> "ok").get(5, TimeUnit.SECONDS));
+        assertEquals("again", executor.submit(() -> "again").get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.stats().rejected());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
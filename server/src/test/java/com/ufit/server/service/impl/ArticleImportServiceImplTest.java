@@ -0,0 +1,211 @@
+package com.ufit.server.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufit.server.dto.response.ImportProgress;
+import com.ufit.server.repository.ArticleRepository;
+import com.ufit.server.service.ArticleSearchService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Streams generated article files into H2: dedup against the database and
+ * within the file, batch boundaries and the progress counters.
+ */
+class ArticleImportServiceImplTest {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+    private final ArticleSearchService articleSearchService = mock(ArticleSearchService.class);
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<ImportProgress> progressAtBatch = new ArrayList<>();
+
+    private JdbcTemplate jdbc;
+    private ArticleImportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:articles;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = spy(new JdbcTemplate(dataSource));
+        jdbc.execute("CREATE TABLE articles (id BIGINT AUTO_INCREMENT PRIMARY KEY, href VARCHAR(255), "
+            + "title VARCHAR(255) NOT NULL, content VARCHAR(1000), category VARCHAR(255), author VARCHAR(255), "
+            + "image_url VARCHAR(255), created_at TIMESTAMP)");
+        when(articleRepository.findAllHrefs()).thenAnswer(invocation ->
+            jdbc.queryForList("SELECT href FROM articles", String.class));
+        // Ghi lại kích thước mỗi lô và tiến độ đúng lúc lô đó được ghi
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<List<?>>getArgument(1).size());
+            progressAtBatch.add(service.getProgress());
+            return invocation.callRealMethod();
+        }).when(jdbc).batchUpdate(anyString(), anyList());
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        service = new ArticleImportServiceImpl(objectMapper, articleRepository, articleSearchService,
+            jdbc, transactions, BATCH_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void writesInBatchesOfBatchSizeWithRemainderLast() throws Exception {
+        ImportProgress progress = service.importArticles(file(articles(0, 1201)));
+
+        assertEquals(List.of(500, 500, 201), batchSizes);
+        assertEquals(1201, rows());
+        assertProgress(progress, "COMPLETED", 1201, 1201, 0);
+        verify(articleSearchService, times(1)).rebuild();
+    }
+
+    @Test
+    void exactMultipleOfBatchSizeWritesNoEmptyBatch() throws Exception {
+        service.importArticles(file(articles(0, 1000)));
+
+        assertEquals(List.of(500, 500), batchSizes);
+        assertEquals(1000, rows());
+    }
+
+    @Test
+    void skipsExistingDuplicateAndMissingHrefs() throws Exception {
+        jdbc.update("INSERT INTO articles (href, title) VALUES ('/a/1', 'old 1'), ('/a/2', 'old 2')");
+        List<Map<String, Object>> articles = articles(0, 5);     // /a/0 .. /a/4, /a/1 và /a/2 đã có
+        articles.add(article("/a/3", "again"));                   // lặp lại trong chính file
+        Map<String, Object> nullHref = article(null, "null href");
+        articles.add(nullHref);
+        Map<String, Object> noHref = article("/a/x", "no href");
+        noHref.remove("href");
+        articles.add(noHref);
+        Map<String, Object> numericHref = article("/a/y", "numeric href");
+        numericHref.put("href", 42);                              // không phải chuỗi: coi như thiếu
+        articles.add(numericHref);
+
+        ImportProgress progress = service.importArticles(file(articles));
+
+        assertProgress(progress, "COMPLETED", 9, 3, 6);
+        assertEquals(List.of("/a/0", "/a/1", "/a/2", "/a/3", "/a/4"),
+            jdbc.queryForList("SELECT href FROM articles ORDER BY href", String.class));
+        assertEquals("title 3", jdbc.queryForObject(
+            "SELECT title FROM articles WHERE href = '/a/3'", String.class));
+        assertEquals(List.of(3), batchSizes);
+    }
+
+    @Test
+    void nothingNewSkipsSearchRebuild() throws Exception {
+        service.importArticles(file(articles(0, 3)));
+        batchSizes.clear();
+
+        ImportProgress again = service.importArticles(file(articles(0, 3)));
+
+        assertProgress(again, "COMPLETED", 3, 0, 3);
+        assertEquals(List.of(), batchSizes);
+        verify(articleSearchService, times(1)).rebuild();
+    }
+
+    @Test
+    void progressCountsUpAcrossBatches() throws Exception {
+        List<Map<String, Object>> articles = articles(0, 1100);
+        // Mỗi 100 bài có một bài thiếu href
+        for (int i = 0; i < articles.size(); i += 100) {
+            articles.get(i).put("href", null);
+        }
+
+        service.importArticles(file(articles));
+
+        assertEquals(List.of(500, 500, 89), batchSizes);
+        ImportProgress first = progressAtBatch.get(0);
+        assertEquals("RUNNING", first.status());
+        assertEquals(0, first.inserted());
+        assertEquals(506, first.processed());
+        assertEquals(6, first.skipped());
+        ImportProgress second = progressAtBatch.get(1);
+        assertEquals(500, second.inserted());
+        assertEquals(1011, second.processed());
+        assertEquals(11, second.skipped());
+        ImportProgress last = progressAtBatch.get(2);
+        assertEquals(1000, last.inserted());
+        assertEquals(1100, last.processed());
+        assertProgress(service.getProgress(), "COMPLETED", 1100, 1089, 11);
+    }
+
+    @Test
+    void failedBatchRollsBackAndReportsCommittedRows() throws Exception {
+        List<Map<String, Object>> articles = articles(0, 800);
+        articles.get(700).remove("title");                       // NOT NULL: lô thứ hai thất bại
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.importArticles(file(articles)));
+
+        assertEquals(500, rows());
+        ImportProgress progress = service.getProgress();
+        assertProgress(progress, "FAILED", 800, 500, 0);
+        verify(articleSearchService, never()).rebuild();
+        // Import tiếp theo vẫn chạy được và bỏ qua các bài đã ghi
+        articles.get(700).put("title", "fixed");
+        assertProgress(service.importArticles(file(articles)), "COMPLETED", 800, 300, 500);
+        assertEquals(800, rows());
+    }
+
+    private static void assertProgress(ImportProgress progress, String status,
+                                       long processed, long inserted, long skipped) {
+        assertEquals(status, progress.status());
+        assertEquals(processed, progress.processed());
+        assertEquals(inserted, progress.inserted());
+        assertEquals(skipped, progress.skipped());
+    }
+
+    private int rows() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM articles", Integer.class);
+    }
+
+    private static List<Map<String, Object>> articles(int from, int to) {
+        List<Map<String, Object>> articles = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            articles.add(article("/a/" + i, "title " + i));
+        }
+        return articles;
+    }
+
+    private static Map<String, Object> article(String href, String title) {
+        Map<String, Object> article = new HashMap<>();
+        article.put("href", href);
+        article.put("title", title);
+        article.put("content", "content of " + title);
+        article.put("category", "training");
+        article.put("author", "coach");
+        article.put("imageUrl", "https://img.example/" + title.hashCode() + ".jpg");
+        article.put("tags", List.of("ignored"));
+        return article;
+    }
+
+    private ByteArrayResource file(List<Map<String, Object>> articles) throws Exception {
+        return new ByteArrayResource(objectMapper.writeValueAsBytes(articles));
+    }
+}
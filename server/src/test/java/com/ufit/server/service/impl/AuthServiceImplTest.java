@@ -0,0 +1,113 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.dto.response.JwtAuthResponse;
+import com.ufit.server.entity.User;
+import com.ufit.server.repository.UserRepository;
+import com.ufit.server.security.jwt.JwtService;
+import com.ufit.server.service.PasswordResetTokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Refresh tokens are only exchanged for a new pair while they match the
+ * user's current token version, which a password reset bumps.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceImplTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private PasswordResetTokenStore resetTokenStore;
+    @InjectMocks private AuthServiceImpl authService;
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtService = new JwtService();
+        set(jwtService, "jwtSecret", "0123456789abcdef0123456789abcdef");
+        set(jwtService, "jwtExpirationMinutes", 60L);
+        set(jwtService, "refreshExpirationDays", 14L);
+        set(jwtService, "verifyCacheMaxEntries", 100);
+        Method init = JwtService.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtService);
+        set(authService, "jwtService", jwtService);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setEmail("alice@ufit.test");
+        user.setPassword("old-hash");
+        lenient().when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void validRefreshTokenIssuesANewPair() {
+        String refresh = jwtService.issueRefreshToken(user).token();
+
+        JwtAuthResponse response = authService.refresh(refresh);
+
+        assertEquals("alice", response.username());
+        assertEquals("Token refreshed", response.message());
+        assertEquals("alice", jwtService.verify(response.token()).orElseThrow().username());
+        assertEquals("alice", jwtService.verifyRefreshToken(response.refreshToken()).orElseThrow().username());
+    }
+
+    @Test
+    void accessTokenIsNotAcceptedAsRefreshToken() {
+        String access = jwtService.issueAccessToken(user).token();
+
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(access));
+    }
+
+    @Test
+    void inactiveUserCannotRefresh() {
+        String refresh = jwtService.issueRefreshToken(user).token();
+        user.setActive(false);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> authService.refresh(refresh));
+        assertEquals("Account is not active", e.getMessage());
+    }
+
+    @Test
+    void passwordResetRevokesEarlierRefreshTokens() {
+        String stolen = jwtService.issueRefreshToken(user).token();
+        when(resetTokenStore.consume("reset-token")).thenReturn(Optional.of("alice@ufit.test"));
+        when(userRepository.findByEmail("alice@ufit.test")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("new-password")).thenReturn("new-hash");
+
+        authService.resetPassword("reset-token", "new-password");
+
+        verify(userRepository).save(user);
+        assertEquals(1, user.getTokenVersion());
+        assertEquals("new-hash", user.getPassword());
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(stolen));
+
+        // Token cấp sau khi đổi mật khẩu vẫn dùng được
+        String fresh = jwtService.issueRefreshToken(user).token();
+        assertEquals("Token refreshed", authService.refresh(fresh).message());
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
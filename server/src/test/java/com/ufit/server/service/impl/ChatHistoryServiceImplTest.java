@@ -0,0 +1,201 @@
+package com.ufit.server.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufit.server.dto.response.ChatHistoryPage;
+import com.ufit.server.entity.ChatEntity;
+import com.ufit.server.repository.ChatMessageRepository;
+import jakarta.persistence.EntityManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the moderator chat history against H2: keyset paging across pages and
+ * equal timestamps, the time window, the sender filter, and the NDJSON export.
+ */
+class ChatHistoryServiceImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SessionFactory sessionFactory;
+    private TransactionTemplate transactions;
+    private ChatMessageRepository repository;
+    private ChatHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:history;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        DatasourceConnectionProviderImpl connections = new DatasourceConnectionProviderImpl();
+        connections.setDataSource(dataSource);
+        Configuration configuration = new Configuration();
+        configuration.getProperties().put(AvailableSettings.CONNECTION_PROVIDER, connections);
+        sessionFactory = configuration
+            .addAnnotatedClass(ChatEntity.class)
+            .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .buildSessionFactory();
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        repository = new JpaRepositoryFactory(entityManager).getRepository(ChatMessageRepository.class);
+        transactions = new TransactionTemplate(new JpaTransactionManager(sessionFactory));
+        service = new ChatHistoryServiceImpl(repository, entityManager, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void cursorWalksEveryMessageNewestFirstWithoutGapsOrRepeats() {
+        // Hai tin nhắn cùng timestamp ở mỗi mốc để kiểm tra phần so sánh theo id
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(save("alice", "m" + i, T0.plusMinutes(i / 2)));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ChatHistoryPage page = page(null, null, null, cursor, 3);
+            page.messages().forEach(m -> seen.add(m.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        Collections.reverse(ids);
+        assertEquals(3, pages);
+        assertEquals(ids, seen);
+    }
+
+    @Test
+    void lastFullPageHasNoCursor() {
+        save("alice", "a", T0);
+        save("alice", "b", T0.plusMinutes(1));
+
+        ChatHistoryPage page = page(null, null, null, null, 2);
+
+        assertEquals(2, page.messages().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void pagesStayInsideTheTimeWindow() {
+        save("alice", "before", T0.minusMinutes(1));
+        Long atFrom = save("alice", "at-from", T0);
+        Long inside = save("alice", "inside", T0.plusMinutes(5));
+        save("alice", "at-to", T0.plusMinutes(10));
+
+        ChatHistoryPage first = page(null, T0, T0.plusMinutes(10), null, 1);
+        assertEquals(List.of(inside), ids(first));
+        assertNotNull(first.nextCursor());
+
+        ChatHistoryPage second = page(null, T0, T0.plusMinutes(10), first.nextCursor(), 1);
+        assertEquals(List.of(atFrom), ids(second));
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void senderFilterAppliesAcrossPages() {
+        Long a1 = save("alice", "a1", T0);
+        save("bob", "b1", T0.plusMinutes(1));
+        Long a2 = save("alice", "a2", T0.plusMinutes(2));
+        save("bob", "b2", T0.plusMinutes(3));
+        Long a3 = save("alice", "a3", T0.plusMinutes(4));
+
+        ChatHistoryPage first = page("alice", null, null, null, 2);
+        ChatHistoryPage second = page("alice", null, null, first.nextCursor(), 2);
+
+        assertEquals(List.of(a3, a2), ids(first));
+        assertEquals(List.of(a1), ids(second));
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void rejectsBadCursorAndEmptyWindow() {
+        assertThrows(IllegalArgumentException.class, () -> page(null, null, null, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> page(null, T0, T0, null, 10));
+    }
+
+    @Test
+    void exportWritesOneJsonObjectPerLineOldestFirst() throws IOException {
+        save("alice", "early", T0);
+        save("bob", "skipped", T0.plusMinutes(1));
+        save("alice", "late", T0.plusMinutes(2));
+        save("alice", "outside", T0.plusMinutes(10));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = export("alice", T0, T0.plusMinutes(10), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("early", first.get("content").asText());
+        assertEquals("alice", first.get("sender").asText());
+        assertEquals("2026-03-01T12:00:00", first.get("timestamp").asText());
+        assertEquals("late", objectMapper.readTree(lines[1]).get("content").asText());
+    }
+
+    @Test
+    void exportWithoutFiltersStreamsEverything() {
+        for (int i = 0; i < 20; i++) {
+            save(i % 2 == 0 ? "alice" : "bob", "m" + i, T0.plusSeconds(i));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(20, export(null, null, null, out));
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    private Long save(String sender, String content, LocalDateTime timestamp) {
+        return transactions.execute(status ->
+            repository.save(new ChatEntity(null, sender, content, timestamp)).getId());
+    }
+
+    private ChatHistoryPage page(String sender, LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        return transactions.execute(status -> service.getPage(sender, from, to, cursor, size));
+    }
+
+    private long export(String sender, LocalDateTime from, LocalDateTime to, ByteArrayOutputStream out) {
+        return transactions.execute(status -> {
+            try {
+                return service.exportNdjson(sender, from, to, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static List<Long> ids(ChatHistoryPage page) {
+        return page.messages().stream().map(ChatEntity::getId).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.dto.response.ChatPersistenceStats;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Runs the write-behind chat writer against H2: batching by size and by
+ * interval, refusal when the queue is full, and draining on shutdown.
+ */
+class ChatMessageWriterTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactions;
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:chat;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE chat_entity (id BIGINT AUTO_INCREMENT PRIMARY KEY, sender VARCHAR(255), "
+            + "content VARCHAR(1000), timestamp TIMESTAMP)");
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shutdownDrainsEverythingQueued() throws InterruptedException {
+        writer = new ChatMessageWriter(jdbc, transactions, 1000, 10, 200, 100, 5000);
+        for (int i = 0; i < 35; i++) {
+            assertTrue(writer.enqueue("user" + (i % 3), "message " + i, LocalDateTime.now()));
+        }
+
+        writer.shutdown();
+
+        ChatPersistenceStats stats = writer.stats();
+        assertEquals(35, rows());
+        assertEquals(35, stats.written());
+        assertEquals(0, stats.queued());
+        assertEquals(0, stats.rejected());
+        assertEquals(0, stats.failed());
+        assertTrue(stats.batches() >= 4, "35 messages in batches of at most 10: " + stats.batches());
+        assertEquals(List.of("message 0", "message 34"), jdbc.queryForList(
+            "SELECT content FROM chat_entity WHERE id IN (SELECT MIN(id) FROM chat_entity "
+                + "UNION SELECT MAX(id) FROM chat_entity) ORDER BY id", String.class));
+    }
+
+    @Test
+    void flushesFullBatchesWithoutWaitingForTheInterval() throws InterruptedException {
+        writer = new ChatMessageWriter(jdbc, transactions, 1000, 10, 2000, 100, 5000);
+        for (int i = 0; i < 25; i++) {
+            writer.enqueue("alice", "message " + i, LocalDateTime.now());
+        }
+
+        // Hai batch đầy ghi ngay; 5 tin còn lại chờ hết interval 2 giây
+        awaitStats(stats -> stats.written() == 20, 1000);
+        assertEquals(2, writer.stats().batches());
+        assertEquals(10.0, writer.stats().avgBatchSize());
+        assertEquals(20, rows());
+
+        writer.shutdown();
+
+        assertEquals(25, rows());
+        assertEquals(25, writer.stats().written());
+        assertEquals(3, writer.stats().batches());
+    }
+
+    @Test
+    void flushesPartialBatchOnceTheIntervalPasses() throws InterruptedException {
+        writer = new ChatMessageWriter(jdbc, transactions, 1000, 100, 150, 100, 5000);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue("bob", "message " + i, LocalDateTime.now());
+        }
+
+        awaitStats(stats -> stats.written() == 3, 2000);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 140);
+        assertEquals(1, writer.stats().batches());
+        assertEquals(3, rows());
+    }
+
+    @Test
+    void refusesMessagesWhileTheQueueIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        JdbcTemplate blocking = spy(new JdbcTemplate(dataSource));
+        // Batch đầu tiên bị giữ lại trong lệnh INSERT cho đến khi test cho phép
+        doAnswer(invocation -> {
+            writing.countDown();
+            proceed.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(blocking).batchUpdate(anyString(), anyList());
+        writer = new ChatMessageWriter(blocking, transactions, 2, 1, 50, 50, 5000);
+
+        assertTrue(writer.enqueue("alice", "first", LocalDateTime.now()));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        assertTrue(writer.enqueue("alice", "second", LocalDateTime.now()));
+        assertTrue(writer.enqueue("alice", "third", LocalDateTime.now()));
+
+        long start = System.nanoTime();
+        assertFalse(writer.enqueue("alice", "fourth", LocalDateTime.now()));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 40);
+        assertEquals(2, writer.stats().queued());
+        assertEquals(1, writer.stats().rejected());
+
+        proceed.countDown();
+        writer.shutdown();
+
+        assertEquals(3, rows());
+        assertEquals(3, writer.stats().written());
+        assertFalse(writer.enqueue("alice", "after shutdown", LocalDateTime.now()));
+        assertEquals(2, writer.stats().rejected());
+    }
+
+    @Test
+    void truncatesContentToTheColumnLength() throws InterruptedException {
+        writer = new ChatMessageWriter(jdbc, transactions, 100, 10, 50, 100, 5000);
+        writer.enqueue("alice", "x".repeat(1500), LocalDateTime.now());
+        writer.enqueue("alice", "short", LocalDateTime.now());
+
+        writer.shutdown();
+
+        assertEquals(2, rows());
+        assertEquals(0, writer.stats().failed());
+        assertEquals(1000, jdbc.queryForObject(
+            "SELECT MAX(LENGTH(content)) FROM chat_entity", Integer.class));
+    }
+
+    private long rows() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM chat_entity", Long.class);
+    }
+
+    private void awaitStats(Predicate<ChatPersistenceStats> condition, long timeoutMillis)
+        throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.test(writer.stats())) {
+            assertTrue(System.currentTimeMillis() < deadline, "writer stats: " + writer.stats());
+            Thread.sleep(10);
+        }
+    }
+}
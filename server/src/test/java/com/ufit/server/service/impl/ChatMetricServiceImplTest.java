@@ -0,0 +1,102 @@
+package com.ufit.server.service.impl;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the chat metric flush against H2: counts add up across flushes, a
+ * failed batch is retried without double counting, and the last send time
+ * never moves backwards.
+ */
+class ChatMetricServiceImplTest {
+
+    private JdbcTemplate jdbc;
+    private ChatMetricServiceImpl metrics;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:metrics;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE chat_metrics (username VARCHAR(255) PRIMARY KEY, "
+            + "message_count BIGINT NOT NULL, last_sent_at TIMESTAMP)");
+        metrics = new ChatMetricServiceImpl(jdbc, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void flushAddsToExistingCounts() {
+        metrics.recordMessageSent("alice");
+        metrics.recordMessageSent("alice");
+        metrics.recordMessageSent("bob");
+        metrics.flush();
+        metrics.recordMessageSent("alice");
+        metrics.flush();
+        metrics.flush();
+
+        assertEquals(3, count("alice"));
+        assertEquals(1, count("bob"));
+    }
+
+    @Test
+    void failedBatchIsRolledBackAndRetriedOnce() {
+        // Dòng của mallory làm lỗi cả lô; các dòng khác không được ghi lẻ
+        jdbc.execute("ALTER TABLE chat_metrics ADD CONSTRAINT no_mallory CHECK (username <> 'mallory')");
+        metrics.recordMessageSent("alice");
+        metrics.recordMessageSent("alice");
+        metrics.recordMessageSent("mallory");
+        metrics.flush();
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM chat_metrics", Integer.class));
+
+        jdbc.execute("ALTER TABLE chat_metrics DROP CONSTRAINT no_mallory");
+        metrics.flush();
+
+        assertEquals(2, count("alice"));
+        assertEquals(1, count("mallory"));
+    }
+
+    @Test
+    void lastSentAtNeverMovesBackwards() {
+        // Instance khác đã ghi một thời điểm muộn hơn
+        Timestamp later = Timestamp.valueOf(LocalDateTime.now().plusHours(1).withNano(0));
+        jdbc.update("INSERT INTO chat_metrics (username, message_count, last_sent_at) VALUES (?, ?, ?)",
+            "alice", 5, later);
+
+        metrics.recordMessageSent("alice");
+        metrics.flush();
+
+        assertEquals(6, count("alice"));
+        assertEquals(later, jdbc.queryForObject(
+            "SELECT last_sent_at FROM chat_metrics WHERE username = ?", Timestamp.class, "alice"));
+
+        metrics.recordMessageSent("bob");
+        metrics.flush();
+        Timestamp bobSent = jdbc.queryForObject(
+            "SELECT last_sent_at FROM chat_metrics WHERE username = ?", Timestamp.class, "bob");
+        metrics.recordMessageSent("bob");
+        metrics.flush();
+
+        assertFalse(jdbc.queryForObject(
+            "SELECT last_sent_at FROM chat_metrics WHERE username = ?", Timestamp.class, "bob").before(bobSent));
+    }
+
+    private long count(String username) {
+        return jdbc.queryForObject("SELECT message_count FROM chat_metrics WHERE username = ?", Long.class, username);
+    }
+}
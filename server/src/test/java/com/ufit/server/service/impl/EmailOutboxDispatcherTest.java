@@ -0,0 +1,319 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.entity.EmailOutbox;
+import com.ufit.server.repository.EmailOutboxRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the outbox dispatcher against H2 and a minimal SMTP stub on a local
+ * socket: delivery in batches, per-recipient failures, batches the worker pool
+ * rejects, and SENDING rows whose lease ran out.
+ */
+class EmailOutboxDispatcherTest {
+
+    private static final String BOUNCING = "bounce@ufit.test";
+
+    private SessionFactory sessionFactory;
+    private EmailOutboxRepository repository;
+    private TransactionTemplate transactions;
+    private SmtpStub smtp;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        DatasourceConnectionProviderImpl connections = new DatasourceConnectionProviderImpl();
+        connections.setDataSource(dataSource);
+        Configuration configuration = new Configuration();
+        configuration.getProperties().put(AvailableSettings.CONNECTION_PROVIDER, connections);
+        sessionFactory = configuration
+            .addAnnotatedClass(EmailOutbox.class)
+            .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .buildSessionFactory();
+        // EntityManager dùng chung, gắn theo transaction của từng thread (poller và worker)
+        repository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(sessionFactory))
+            .getRepository(EmailOutboxRepository.class);
+        transactions = new TransactionTemplate(new JpaTransactionManager(sessionFactory));
+
+        smtp = new SmtpStub();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.port());
+        Properties props = new Properties();
+        props.setProperty("mail.smtp.from", "noreply@ufit.test");
+        props.setProperty("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(props);
+
+        dispatcher = new EmailOutboxDispatcher(repository, mailSender, transactions,
+            2, 3, 8, 5000, 3_600_000, 600_000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.shutdown();
+        smtp.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void deliversQueuedEmailsInBatches() throws Exception {
+        List<Long> ids = enqueue("a@ufit.test", "b@ufit.test", "c@ufit.test", "d@ufit.test", "e@ufit.test");
+
+        dispatcher.poll();
+
+        awaitRows(rows -> rows.stream().allMatch(e -> e.getStatus() == EmailOutbox.Status.SENT));
+        for (Long id : ids) {
+            EmailOutbox email = load(id);
+            assertNotNull(email.getSentAt());
+            assertEquals(0, email.getAttempts());
+        }
+        assertEquals(List.of("a@ufit.test", "b@ufit.test", "c@ufit.test", "d@ufit.test", "e@ufit.test"),
+            smtp.recipients().stream().sorted().toList());
+        // 5 email, batch 3: hai kết nối SMTP
+        assertEquals(2, smtp.connections());
+    }
+
+    @Test
+    void failedRecipientIsRetriedLaterWhileOthersAreSent() throws Exception {
+        List<Long> ids = enqueue("a@ufit.test", BOUNCING, "c@ufit.test");
+
+        dispatcher.poll();
+
+        awaitRows(rows -> rows.stream().noneMatch(e -> e.getStatus() == EmailOutbox.Status.SENDING));
+        assertEquals(EmailOutbox.Status.SENT, load(ids.get(0)).getStatus());
+        assertEquals(EmailOutbox.Status.SENT, load(ids.get(2)).getStatus());
+        EmailOutbox bounced = load(ids.get(1));
+        assertEquals(EmailOutbox.Status.PENDING, bounced.getStatus());
+        assertEquals(1, bounced.getAttempts());
+        assertNotNull(bounced.getLastError());
+        assertTrue(bounced.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(List.of("a@ufit.test", "c@ufit.test"), smtp.recipients().stream().sorted().toList());
+    }
+
+    @Test
+    void rejectedBatchesGoBackToPending() throws Exception {
+        List<Long> ids = enqueue("a@ufit.test", "b@ufit.test", "c@ufit.test", "d@ufit.test");
+        // Pool đã dừng: mọi execute(...) đều bị từ chối
+        dispatcher.shutdown();
+
+        dispatcher.poll();
+
+        for (Long id : ids) {
+            EmailOutbox email = load(id);
+            assertEquals(EmailOutbox.Status.PENDING, email.getStatus());
+            assertEquals(0, email.getAttempts());
+            assertTrue(!email.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        }
+        assertTrue(smtp.recipients().isEmpty());
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedAndDelivered() throws Exception {
+        List<Long> ids = enqueue("stuck@ufit.test", "busy@ufit.test");
+        transactions.executeWithoutResult(status -> {
+            repository.updateStatus(List.of(ids.get(0)), EmailOutbox.Status.SENDING,
+                LocalDateTime.now().minusMinutes(1));
+            repository.updateStatus(List.of(ids.get(1)), EmailOutbox.Status.SENDING,
+                LocalDateTime.now().plusMinutes(10));
+        });
+
+        dispatcher.reclaimExpired();
+
+        assertEquals(EmailOutbox.Status.PENDING, load(ids.get(0)).getStatus());
+        assertEquals(EmailOutbox.Status.SENDING, load(ids.get(1)).getStatus());
+
+        dispatcher.poll();
+
+        awaitRows(rows -> load(ids.get(0)).getStatus() == EmailOutbox.Status.SENT);
+        assertEquals(List.of("stuck@ufit.test"), smtp.recipients());
+        assertEquals(EmailOutbox.Status.SENDING, load(ids.get(1)).getStatus());
+    }
+
+    @Test
+    void claimSetsLeaseOnSendingRows() throws Exception {
+        smtp.pause();
+        List<Long> ids = enqueue("a@ufit.test");
+
+        dispatcher.poll();
+
+        EmailOutbox claimed = load(ids.get(0));
+        assertEquals(EmailOutbox.Status.SENDING, claimed.getStatus());
+        assertTrue(claimed.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(9)));
+        smtp.resume();
+        awaitRows(rows -> rows.stream().allMatch(e -> e.getStatus() == EmailOutbox.Status.SENT));
+    }
+
+    private List<Long> enqueue(String... recipients) {
+        return transactions.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (String recipient : recipients) {
+                ids.add(repository.save(new EmailOutbox(recipient, "Subject " + recipient, "Body")).getId());
+            }
+            return ids;
+        });
+    }
+
+    private EmailOutbox load(Long id) {
+        return transactions.execute(status -> repository.findById(id).orElseThrow());
+    }
+
+    private void awaitRows(Predicate<List<EmailOutbox>> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.test(transactions.execute(status -> repository.findAll()))) {
+            assertTrue(System.currentTimeMillis() < deadline, "outbox rows did not reach the expected state");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Just enough SMTP for Jakarta Mail: accepts every recipient except
+     * {@link #BOUNCING} and records the accepted ones once DATA completes.
+     */
+    private static final class SmtpStub implements AutoCloseable {
+
+        private final ServerSocket server;
+        private final List<String> delivered = new CopyOnWriteArrayList<>();
+        private final Object gate = new Object();
+        private volatile boolean paused;
+        private volatile int connections;
+
+        SmtpStub() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::acceptLoop, "smtp-stub");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        List<String> recipients() {
+            return delivered;
+        }
+
+        int connections() {
+            return connections;
+        }
+
+        void pause() {
+            paused = true;
+        }
+
+        void resume() {
+            synchronized (gate) {
+                paused = false;
+                gate.notifyAll();
+            }
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections++;
+                    Thread session = new Thread(() -> serve(socket), "smtp-stub-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+                awaitResume();
+                OutputStream out = socket.getOutputStream();
+                reply(out, "220 stub ESMTP");
+                List<String> rcpt = new ArrayList<>();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("RCPT TO:")) {
+                        String address = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+                        if (address.equals(BOUNCING)) {
+                            reply(out, "550 mailbox unavailable");
+                        } else {
+                            rcpt.add(address);
+                            reply(out, "250 OK");
+                        }
+                    } else if (command.equals("DATA")) {
+                        reply(out, "354 end with .");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // bỏ qua nội dung message
+                        }
+                        delivered.addAll(rcpt);
+                        rcpt.clear();
+                        reply(out, "250 OK queued");
+                    } else if (command.equals("RSET")) {
+                        rcpt.clear();
+                        reply(out, "250 OK");
+                    } else if (command.equals("QUIT")) {
+                        reply(out, "221 bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // kết nối đóng giữa chừng: bỏ qua
+            }
+        }
+
+        private void awaitResume() throws InterruptedException {
+            synchronized (gate) {
+                while (paused) {
+                    gate.wait();
+                }
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            resume();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ufit.server.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryPasswordResetTokenStoreTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void consumeReturnsEmailOnlyOnce() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(10);
+        store.save("t1", "alice@ufit.test", now.plusHours(1));
+
+        assertEquals(Optional.of("alice@ufit.test"), store.consume("t1"));
+        assertEquals(Optional.empty(), store.consume("t1"));
+        assertEquals(Optional.empty(), store.consume("unknown"));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(10);
+        store.save("old", "alice@ufit.test", now.minusSeconds(1));
+
+        assertEquals(Optional.empty(), store.consume("old"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void fullStoreEvictsTheTokenClosestToExpiry() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(2);
+        store.save("soon", "a@ufit.test", now.plusMinutes(5));
+        store.save("later", "b@ufit.test", now.plusHours(2));
+        store.save("latest", "c@ufit.test", now.plusHours(3));
+
+        assertEquals(2, store.size());
+        assertEquals(Optional.empty(), store.consume("soon"));
+        assertEquals(Optional.of("b@ufit.test"), store.consume("later"));
+        assertEquals(Optional.of("c@ufit.test"), store.consume("latest"));
+    }
+
+    @Test
+    void fullStoreDropsExpiredTokensBeforeEvictingLiveOnes() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(2);
+        store.save("expired", "a@ufit.test", now.minusMinutes(1));
+        store.save("live", "b@ufit.test", now.plusMinutes(5));
+        store.save("new", "c@ufit.test", now.plusHours(1));
+
+        assertEquals(Optional.of("b@ufit.test"), store.consume("live"));
+        assertEquals(Optional.of("c@ufit.test"), store.consume("new"));
+    }
+
+    @Test
+    void consumedTokensDoNotCountTowardsCapacity() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(2);
+        // Token còn sống hết hạn sớm hơn token đã dùng: nếu tính cả entry đã dùng
+        // thì "live" sẽ là token bị bỏ khi lưu "new"
+        store.save("live", "a@ufit.test", now.plusMinutes(5));
+        store.save("used", "b@ufit.test", now.plusHours(1));
+        assertEquals(Optional.of("b@ufit.test"), store.consume("used"));
+
+        store.save("new", "c@ufit.test", now.plusHours(2));
+
+        assertEquals(2, store.size());
+        assertEquals(Optional.of("a@ufit.test"), store.consume("live"));
+        assertEquals(Optional.of("c@ufit.test"), store.consume("new"));
+    }
+
+    @Test
+    void resavedTokenLeavesNoStaleEntryBehind() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(2);
+        store.save("same", "a@ufit.test", now.plusHours(1));
+        store.save("same", "a@ufit.test", now.plusMinutes(5));
+        store.save("other", "b@ufit.test", now.plusHours(2));
+
+        assertEquals(Optional.of("a@ufit.test"), store.consume("same"));
+        assertEquals(Optional.of("b@ufit.test"), store.consume("other"));
+    }
+
+    @Test
+    void sweepRemovesOnlyExpiredTokens() {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(10);
+        store.save("e1", "a@ufit.test", now.minusMinutes(2));
+        store.save("e2", "b@ufit.test", now.minusMinutes(1));
+        store.save("live", "c@ufit.test", now.plusHours(1));
+
+        assertEquals(2, store.sweepExpired());
+        assertEquals(1, store.size());
+        assertEquals(0, store.sweepExpired());
+        assertEquals(Optional.of("c@ufit.test"), store.consume("live"));
+    }
+
+    @Test
+    void concurrentConsumeSucceedsExactlyOnce() throws Exception {
+        InMemoryPasswordResetTokenStore store = new InMemoryPasswordResetTokenStore(1000);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String token = "token-" + round;
+                store.save(token, "alice@ufit.test", now.plusHours(1));
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Optional<String>>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    Callable<Optional<String>> consume = () -> {
+                        start.await();
+                        return store.consume(token);
+                    };
+                    results.add(pool.submit(consume));
+                }
+                start.countDown();
+
+                int successes = 0;
+                for (Future<Optional<String>> result : results) {
+                    if (result.get().isPresent()) {
+                        successes++;
+                    }
+                }
+                assertEquals(1, successes, "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, store.size());
+    }
+}
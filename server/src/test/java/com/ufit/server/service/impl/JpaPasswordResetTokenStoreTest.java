@@ -0,0 +1,200 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.entity.Token;
+import com.ufit.server.repository.TokenReponsitory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the JPA reset-token store against H2: hashed primary keys, single use
+ * under concurrent consumers, expiry and capacity eviction.
+ */
+class JpaPasswordResetTokenStoreTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private SessionFactory sessionFactory;
+    private TokenReponsitory repository;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:reset;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        DatasourceConnectionProviderImpl connections = new DatasourceConnectionProviderImpl();
+        connections.setDataSource(dataSource);
+        Configuration configuration = new Configuration();
+        configuration.getProperties().put(AvailableSettings.CONNECTION_PROVIDER, connections);
+        sessionFactory = configuration
+            .addAnnotatedClass(Token.class)
+            .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+            .buildSessionFactory();
+        repository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(sessionFactory))
+            .getRepository(TokenReponsitory.class);
+        transactions = new TransactionTemplate(new JpaTransactionManager(sessionFactory));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void storesOnlyTheSha256OfTheToken() throws Exception {
+        JpaPasswordResetTokenStore store = store(10);
+        inTx(() -> { store.save("raw-token", "alice@ufit.test", now.plusHours(1)); return null; });
+
+        String expected = HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest("raw-token".getBytes(StandardCharsets.UTF_8)));
+        List<Token> rows = inTx(repository::findAll);
+        assertEquals(1, rows.size());
+        assertEquals(expected, rows.get(0).getTokenHash());
+        assertEquals(64, rows.get(0).getTokenHash().length());
+        assertTrue(inTx(() -> repository.findById("raw-token")).isEmpty());
+    }
+
+    @Test
+    void saveInsertsWithoutSelectingFirst() {
+        JpaPasswordResetTokenStore store = store(10);
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        inTx(() -> { store.save("t1", "alice@ufit.test", now.plusHours(1)); return null; });
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        Token loaded = inTx(() -> repository.findAll().get(0));
+        assertFalse(loaded.isNew());
+        assertEquals(Optional.of("alice@ufit.test"), inTx(() -> store.consume("t1")));
+    }
+
+    @Test
+    void consumeReturnsEmailOnlyOnce() {
+        JpaPasswordResetTokenStore store = store(10);
+        inTx(() -> { store.save("t1", "alice@ufit.test", now.plusHours(1)); return null; });
+
+        assertEquals(Optional.of("alice@ufit.test"), inTx(() -> store.consume("t1")));
+        assertEquals(Optional.empty(), inTx(() -> store.consume("t1")));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndDeleted() {
+        JpaPasswordResetTokenStore store = store(10);
+        inTx(() -> { store.save("old", "alice@ufit.test", now.minusSeconds(1)); return null; });
+
+        assertEquals(Optional.empty(), inTx(() -> store.consume("old")));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void sweepRemovesOnlyExpiredTokens() {
+        JpaPasswordResetTokenStore store = store(10);
+        inTx(() -> {
+            store.save("e1", "a@ufit.test", now.minusMinutes(2));
+            store.save("e2", "b@ufit.test", now.minusMinutes(1));
+            store.save("live", "c@ufit.test", now.plusHours(1));
+            return null;
+        });
+
+        assertEquals(2, inTx(store::sweepExpired));
+        assertEquals(1, store.size());
+        assertEquals(Optional.of("c@ufit.test"), inTx(() -> store.consume("live")));
+    }
+
+    @Test
+    void fullStoreEvictsTheTokenClosestToExpiry() {
+        JpaPasswordResetTokenStore store = store(2);
+        inTx(() -> {
+            store.save("soon", "a@ufit.test", now.plusMinutes(5));
+            store.save("later", "b@ufit.test", now.plusHours(2));
+            return null;
+        });
+        inTx(() -> { store.save("latest", "c@ufit.test", now.plusHours(3)); return null; });
+
+        assertEquals(2, store.size());
+        assertEquals(Optional.empty(), inTx(() -> store.consume("soon")));
+        assertEquals(Optional.of("b@ufit.test"), inTx(() -> store.consume("later")));
+        assertEquals(Optional.of("c@ufit.test"), inTx(() -> store.consume("latest")));
+    }
+
+    @Test
+    void concurrentConsumeSucceedsExactlyOnce() throws Exception {
+        JpaPasswordResetTokenStore store = store(1000);
+        int threads = 6;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 10; round++) {
+                String token = "token-" + round;
+                inTx(() -> { store.save(token, "alice@ufit.test", now.plusHours(1)); return null; });
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Optional<String>>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    Callable<Optional<String>> consume = () -> {
+                        start.await();
+                        return inTx(() -> store.consume(token));
+                    };
+                    results.add(pool.submit(consume));
+                }
+                start.countDown();
+
+                int successes = 0;
+                for (Future<Optional<String>> result : results) {
+                    try {
+                        if (result.get().isPresent()) {
+                            successes++;
+                        }
+                    } catch (ExecutionException e) {
+                        // Lỗi khóa dòng của DB cũng là một lần consume không thành công
+                    }
+                }
+                assertEquals(1, successes, "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, store.size());
+    }
+
+    private JpaPasswordResetTokenStore store(int maxEntries) {
+        return new JpaPasswordResetTokenStore(repository, maxEntries);
+    }
+
+    private <T> T inTx(Supplier<T> work) {
+        return transactions.execute(status -> work.get());
+    }
+}
@@ -0,0 +1,252 @@
+package com.ufit.server.service.impl;
+
+import com.ufit.server.repository.ForumVoteRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+class VoteCounterEngineTest {
+
+    private JdbcTemplate jdbc;
+    private VoteCounterEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:votes;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = spy(new JdbcTemplate(dataSource));
+        jdbc.execute("CREATE TABLE forum_posts (id BIGINT PRIMARY KEY, author VARCHAR(50), "
+            + "upvotes INT DEFAULT 0, downvotes INT DEFAULT 0)");
+        jdbc.execute("CREATE TABLE users (username VARCHAR(50) PRIMARY KEY, upvotes_received INT DEFAULT 0, "
+            + "downvotes_received INT DEFAULT 0, karma INT DEFAULT 0)");
+        jdbc.execute("CREATE TABLE forum_votes (id BIGINT AUTO_INCREMENT PRIMARY KEY, post_id BIGINT, "
+            + "username VARCHAR(50), is_upvote BOOLEAN)");
+        for (long id = 1; id <= 4; id++) {
+            jdbc.update("INSERT INTO forum_posts (id) VALUES (?)", id);
+        }
+        jdbc.update("INSERT INTO users (username) VALUES ('alice'), ('bob')");
+
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        engine = new VoteCounterEngine(jdbc, transactions, mock(ForumVoteRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void flushWritesCountsAndKarmaAndEmptiesMaps() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            engine.record(1L, "alice", 1, 0);
+        }
+        engine.record(1L, "alice", 0, 1);
+        // Đổi vote: bỏ upvote, thêm downvote
+        engine.record(2L, "bob", 1, 0);
+        engine.record(2L, "bob", -1, 1);
+        // Bài không có tác giả chỉ đổi số vote của bài
+        engine.record(3L, null, 1, 0);
+        // Vote rồi bỏ vote: delta bằng 0
+        engine.record(4L, "bob", 1, 0);
+        engine.record(4L, "bob", -1, 0);
+
+        assertEquals(7, engine.pendingUpvotes(1L));
+        assertEquals(1, engine.pendingDownvotes(1L));
+
+        engine.flush();
+
+        assertPost(1, 7, 1);
+        assertPost(2, 0, 1);
+        assertPost(3, 1, 0);
+        assertPost(4, 0, 0);
+        assertUser("alice", 7, 1, 2);
+        assertUser("bob", 0, 1, 0);
+        assertEquals(0, engine.pendingUpvotes(1L));
+        assertTrue(deltas("postDeltas").isEmpty());
+        assertTrue(deltas("authorDeltas").isEmpty());
+    }
+
+    @Test
+    void failedFlushKeepsDeltasForTheNextRound() throws Exception {
+        doThrow(new DataAccessResourceFailureException("database down"))
+            .doCallRealMethod()
+            .when(jdbc).batchUpdate(startsWith("UPDATE forum_posts"), anyList());
+        engine.record(1L, "alice", 1, 0);
+        engine.record(1L, "alice", 1, 0);
+
+        engine.flush();
+
+        assertPost(1, 0, 0);
+        assertUser("alice", 2, 0, 0);
+        assertEquals(2, engine.pendingUpvotes(1L));
+        assertEquals(1, deltas("postDeltas").size());
+        assertTrue(deltas("authorDeltas").isEmpty());
+
+        engine.flush();
+
+        assertPost(1, 2, 0);
+        assertTrue(deltas("postDeltas").isEmpty());
+    }
+
+    @Test
+    void partlyFailedPostBatchIsRolledBackAndNotDoubled() {
+        // Post 2 vượt ràng buộc: cả lô phải rollback, kể cả post 1 đứng trước
+        jdbc.execute("ALTER TABLE forum_posts ADD CONSTRAINT max_upvotes CHECK (upvotes < 100)");
+        engine.record(1L, null, 1, 0);
+        engine.record(2L, null, 150, 0);
+
+        engine.flush();
+        assertPost(1, 0, 0);
+        assertPost(2, 0, 0);
+
+        jdbc.execute("ALTER TABLE forum_posts DROP CONSTRAINT max_upvotes");
+        engine.flush();
+        assertPost(1, 1, 0);
+        assertPost(2, 150, 0);
+    }
+
+    @Test
+    void partlyFailedAuthorBatchIsRolledBackAndNotDoubled() {
+        jdbc.execute("ALTER TABLE users ADD CONSTRAINT max_received CHECK (upvotes_received < 100)");
+        engine.record(1L, "alice", 3, 0);
+        engine.record(2L, "bob", 150, 0);
+
+        engine.flush();
+        assertUser("alice", 0, 0, 0);
+        assertUser("bob", 0, 0, 0);
+
+        jdbc.execute("ALTER TABLE users DROP CONSTRAINT max_received");
+        engine.flush();
+        assertUser("alice", 3, 0, 1);
+        assertUser("bob", 150, 0, 50);
+    }
+
+    @Test
+    void reconcileRecountsPostsFromStoredVotes() throws Exception {
+        // forum_posts lệch so với forum_votes, như sau khi process chết lúc còn delta chưa flush
+        jdbc.update("INSERT INTO forum_votes (post_id, username, is_upvote) VALUES "
+            + "(1, 'u1', TRUE), (1, 'u2', TRUE), (1, 'u3', FALSE), (2, 'u1', FALSE)");
+        jdbc.update("UPDATE forum_posts SET upvotes = 1, downvotes = 0 WHERE id = 1");
+        jdbc.update("UPDATE forum_posts SET upvotes = 5, downvotes = 5 WHERE id = 3");
+        // Delta đang chờ đã có mặt trong forum_votes nên bị bỏ, không cộng thêm
+        engine.record(1L, null, 1, 0);
+
+        assertEquals(4, engine.reconcilePostCounts());
+
+        assertPost(1, 2, 1);
+        assertPost(2, 0, 1);
+        assertPost(3, 0, 0);
+        assertPost(4, 0, 0);
+        assertTrue(deltas("postDeltas").isEmpty());
+
+        engine.afterSingletonsInstantiated();
+        engine.flush();
+        assertPost(1, 2, 1);
+    }
+
+    @Test
+    void startupReconcilesPostCountsThatDisagreeWithVotes() {
+        jdbc.update("INSERT INTO forum_votes (post_id, username, is_upvote) VALUES (1, 'u1', TRUE), (2, 'u1', FALSE)");
+        jdbc.update("UPDATE forum_posts SET upvotes = 1 WHERE id = 1");
+
+        engine.afterSingletonsInstantiated();
+
+        assertPost(1, 1, 0);
+        assertPost(2, 0, 1);
+    }
+
+    @Test
+    void concurrentVotesDuringFlushesAreNeitherLostNorDoubled() throws Exception {
+        doCallRealMethod().when(jdbc).batchUpdate(startsWith("UPDATE"), anyList());
+        int threads = 8;
+        int votesPerThread = 5_000;
+        ExecutorService voters = Executors.newFixedThreadPool(threads);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                engine.flush();
+            }
+        });
+        flusher.start();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(voters.submit(() -> {
+                for (int i = 0; i < votesPerThread; i++) {
+                    long post = 1 + (i + thread) % 4;
+                    String author = post % 2 == 0 ? "bob" : "alice";
+                    // Mỗi vòng: upvote, rồi cứ 5 vòng đổi một upvote thành downvote
+                    engine.record(post, author, 1, 0);
+                    if (i % 5 == 0) {
+                        engine.record(post, author, -1, 1);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        done.set(true);
+        flusher.join();
+        voters.shutdown();
+        engine.flush();
+
+        long total = (long) threads * votesPerThread;
+        long downvotes = (long) threads * (votesPerThread / 5);
+        assertEquals(total - downvotes, sum("SELECT SUM(upvotes) FROM forum_posts"));
+        assertEquals(downvotes, sum("SELECT SUM(downvotes) FROM forum_posts"));
+        assertEquals(total - downvotes, sum("SELECT SUM(upvotes_received) FROM users"));
+        assertEquals(downvotes, sum("SELECT SUM(downvotes_received) FROM users"));
+        assertTrue(deltas("postDeltas").isEmpty());
+        assertTrue(deltas("authorDeltas").isEmpty());
+    }
+
+    private void assertPost(long id, int upvotes, int downvotes) {
+        Map<String, Object> row = jdbc.queryForMap("SELECT upvotes, downvotes FROM forum_posts WHERE id = ?", id);
+        assertEquals(upvotes, ((Number) row.get("upvotes")).intValue(), "upvotes of post " + id);
+        assertEquals(downvotes, ((Number) row.get("downvotes")).intValue(), "downvotes of post " + id);
+    }
+
+    private void assertUser(String username, int upvotes, int downvotes, int karma) {
+        Map<String, Object> row = jdbc.queryForMap(
+            "SELECT upvotes_received, downvotes_received, karma FROM users WHERE username = ?", username);
+        assertEquals(upvotes, ((Number) row.get("upvotes_received")).intValue(), "upvotes of " + username);
+        assertEquals(downvotes, ((Number) row.get("downvotes_received")).intValue(), "downvotes of " + username);
+        assertEquals(karma, ((Number) row.get("karma")).intValue(), "karma of " + username);
+    }
+
+    private long sum(String sql) {
+        Long value = jdbc.queryForObject(sql, Long.class);
+        return value != null ? value : 0;
+    }
+
+    private Map<?, ?> deltas(String name) throws Exception {
+        Field field = VoteCounterEngine.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (Map<?, ?>) field.get(engine);
+    }
+}